@@ -0,0 +1,13 @@
+package com.bi.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+
+/**
+ * A buffered upstream response with the headers to replay. {@code courseId} is set for
+ * single-course reads so events for other courses leave the entry alone; collection
+ * reads have none.
+ */
+public record CachedResponse(HttpHeaders headers, byte[] body, String etag, Long courseId, Duration ttl) {
+}
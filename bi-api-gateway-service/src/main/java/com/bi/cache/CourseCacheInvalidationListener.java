@@ -0,0 +1,82 @@
+package com.bi.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Evicts cached course responses when the query service invalidates its own cache. The
+ * query service publishes on its invalidation channel only after a change has been
+ * written to its read model and its caches evicted, so a response reloaded from it
+ * afterwards is never the old one. Messages are {@code TYPE|instance|cacheName|key}:
+ * an evicted {@code courses} key is the courseId, any other message drops the
+ * collection entries. Messages missed while Redis is unreachable are covered by the
+ * short entry TTL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseCacheInvalidationListener {
+    private static final String COURSES_CACHE = "courses";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final GatewayResponseCache responseCache;
+
+    @Value("${gateway.response-cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.response-cache.invalidation.channel:course-query-cache-invalidation}")
+    private String channel;
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            subscription = redisTemplate.listenToChannel(channel)
+                    .doOnNext(message -> onMessage(message.getMessage()))
+                    .doOnError(e -> log.warn("Cache invalidation channel {} failed, resubscribing: {}",
+                            channel, e.getMessage()))
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                            .maxBackoff(Duration.ofSeconds(30)))
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    void onMessage(String message) {
+        String[] parts = message.split("\\|", 4);
+        if (parts.length < 4) {
+            log.warn("Ignoring cache invalidation message {}", message);
+            return;
+        }
+        if (!COURSES_CACHE.equals(parts[2])) {
+            responseCache.invalidate(List.of());
+            return;
+        }
+        if ("EVICT".equals(parts[0])) {
+            try {
+                responseCache.invalidate(List.of(Long.valueOf(parts[3])));
+                return;
+            } catch (NumberFormatException e) {
+                log.warn("Evicted course key {} is not a courseId, dropping all entries", parts[3]);
+            }
+        }
+        responseCache.invalidateAll();
+    }
+}
@@ -0,0 +1,61 @@
+package com.bi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of course read responses, local to each gateway pod. Course
+ * changes evict the single-course entries of the changed courses and every
+ * collection entry. The generation guards against a response that was loaded
+ * before an invalidation being stored after it.
+ */
+@Component
+@Slf4j
+public class GatewayResponseCache {
+    private final Cache<String, CachedResponse> responses;
+    private final AtomicLong generation = new AtomicLong();
+
+    public GatewayResponseCache(@Value("${gateway.response-cache.maximum-size:10000}") long maximumSize) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String key, CachedResponse response) -> response.ttl()))
+                .build();
+    }
+
+    public CachedResponse get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Store the response unless an invalidation happened since {@code loadedAt} was read
+     */
+    public void put(String key, CachedResponse response, long loadedAt) {
+        if (generation.get() == loadedAt) {
+            responses.put(key, response);
+        }
+    }
+
+    public void invalidate(Collection<Long> courseIds) {
+        generation.incrementAndGet();
+        responses.asMap().values()
+                .removeIf(response -> response.courseId() == null || courseIds.contains(response.courseId()));
+        log.debug("Invalidated cached responses for courses {}", courseIds);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        responses.invalidateAll();
+        log.debug("Invalidated all cached responses");
+    }
+}
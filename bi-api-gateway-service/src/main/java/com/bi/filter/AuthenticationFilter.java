@@ -1,18 +1,16 @@
 package com.bi.filter;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.bi.security.JwtTokenVerifier;
+import com.bi.security.JwtTokenVerifier.VerifiedToken;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
 import java.util.Arrays;
 import java.util.List;
 
@@ -20,8 +18,10 @@ import java.util.List;
 @Slf4j
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
 
-    @Value("${jwt.secret-key}")
-    private String secretKey;
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+
+    private final JwtTokenVerifier tokenVerifier;
 
     // Paths that don't require authentication
     private static final List<String> PUBLIC_ROUTES = Arrays.asList(
@@ -30,18 +30,26 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
         "/api/v1/actuator/health"
     );
 
-    public AuthenticationFilter() {
+    public AuthenticationFilter(JwtTokenVerifier tokenVerifier) {
         super(Config.class);
+        this.tokenVerifier = tokenVerifier;
     }
 
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
             String path = exchange.getRequest().getURI().getPath();
+
+            // Identity headers are only trusted when the gateway set them
+            ServerHttpRequest.Builder request = exchange.getRequest().mutate()
+                    .headers(headers -> {
+                        headers.remove(USER_ID_HEADER);
+                        headers.remove(USER_ROLES_HEADER);
+                    });
             
             // Skip authentication for public routes
             if (PUBLIC_ROUTES.stream().anyMatch(path::startsWith)) {
-                return chain.filter(exchange);
+                return chain.filter(exchange.mutate().request(request.build()).build());
             }
 
             try {
@@ -50,8 +58,12 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
                     return onError(exchange, "Missing authorization token", HttpStatus.UNAUTHORIZED);
                 }
 
-                validateToken(token);
-                return chain.filter(exchange);
+                VerifiedToken verified = tokenVerifier.verify(token);
+                request.header(USER_ID_HEADER, verified.subject());
+                if (!verified.roles().isEmpty()) {
+                    request.header(USER_ROLES_HEADER, String.join(",", verified.roles()));
+                }
+                return chain.filter(exchange.mutate().request(request.build()).build());
                 
             } catch (Exception e) {
                 log.error("Authentication failed: {}", e.getMessage());
@@ -68,20 +80,6 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
         return null;
     }
 
-    private void validateToken(String token) {
-        // Decode base64 secret key for JWT
-        log.info("Decoding JWT secret key"+ secretKey);
-        byte[] keyBytes = java.util.Base64.getDecoder().decode(secretKey);
-        SecretKey key = Keys.hmacShaKeyFor(keyBytes);
-        Claims claims = Jwts.parser()
-            .verifyWith(key)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
-        
-        log.info("Token validated for user: {}", claims.getSubject());
-    }
-
     private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus httpStatus) {
         log.error("Authentication error: {}", message);
         exchange.getResponse().setStatusCode(httpStatus);
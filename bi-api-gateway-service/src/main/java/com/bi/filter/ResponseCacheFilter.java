@@ -0,0 +1,198 @@
+package com.bi.filter;
+
+import com.bi.cache.CachedResponse;
+import com.bi.cache.GatewayResponseCache;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Caches JSON GET responses of a route for a short time and answers {@code If-None-Match}
+ * with 304. Identical requests that arrive while the first one is still upstream wait
+ * for its response instead of being forwarded too (single-flight). Entries can be
+ * shared by everyone or scoped to the caller's roles or user id, which
+ * {@link AuthenticationFilter} forwards, so this filter must come after it.
+ * The body is buffered by {@link ResponseCaptureFilter}.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final Pattern COURSE_PATH = Pattern.compile(".*/courses-query/(\\d+)/?$");
+    // Per connection or per caller, or recomputed for every response
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.SET_COOKIE.toLowerCase(Locale.ROOT),
+            CACHE_STATUS_HEADER.toLowerCase(Locale.ROOT));
+
+    private final GatewayResponseCache responseCache;
+    private final Map<String, Mono<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public ResponseCacheFilter(GatewayResponseCache responseCache) {
+        super(Config.class);
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(request, config.getScope());
+            CachedResponse cached = responseCache.get(key);
+            if (cached != null) {
+                return write(exchange, cached, "HIT");
+            }
+
+            Sinks.One<CachedResponse> loaded = Sinks.one();
+            Mono<CachedResponse> pending = loaded.asMono();
+            Mono<CachedResponse> leader = inFlight.putIfAbsent(key, pending);
+            if (leader != null) {
+                // Responses that could not be cached complete empty, then this request goes upstream itself
+                return leader.map(Optional::of)
+                        .timeout(config.getCoalesceTimeout(), Mono.just(Optional.empty()))
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(response -> response.isPresent()
+                                ? write(exchange, response.get(), "COALESCED")
+                                : chain.filter(exchange));
+            }
+
+            // The body is written after the filter chain completes, so waiting requests are
+            // released when the response is committed: by then a cacheable body was captured
+            Runnable release = () -> {
+                inFlight.remove(key, pending);
+                loaded.tryEmitEmpty();
+            };
+            exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(release));
+            return load(exchange, chain, config, key, loaded)
+                    .doOnError(e -> release.run())
+                    .doOnCancel(release);
+        };
+    }
+
+    private Mono<Void> load(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                            String key, Sinks.One<CachedResponse> loaded) {
+        long generation = responseCache.generation();
+        Long courseId = courseId(exchange.getRequest());
+
+        exchange.getAttributes().put(ResponseCaptureFilter.CAPTURE_ATTR,
+                (ResponseCaptureFilter.BodyCapture) (response, contentType, body) -> {
+                    // Keep the upstream tag (the course version, usable for If-Match), else hash the body
+                    String etag = response.getHeaders().getETag() != null ? response.getHeaders().getETag() : etag(body);
+                    CachedResponse cached = new CachedResponse(
+                            cacheableHeaders(response.getHeaders()), body, etag, courseId, config.getTtl());
+                    responseCache.put(key, cached, generation);
+                    loaded.tryEmitValue(cached);
+
+                    response.getHeaders().setETag(cached.etag());
+                    response.getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                    if (notModified(exchange.getRequest(), cached.etag())) {
+                        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                        return response.setComplete();
+                    }
+                    response.getHeaders().setContentLength(body.length);
+                    return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+                });
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setETag(cached.etag());
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        // Headers this request already carries, such as its own CORS headers, take precedence
+        cached.headers().forEach((name, values) -> {
+            if (!response.getHeaders().containsKey(name)) {
+                response.getHeaders().addAll(name, values);
+            }
+        });
+        if (notModified(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static HttpHeaders cacheableHeaders(HttpHeaders upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        upstream.forEach((name, values) -> {
+            String lowerCaseName = name.toLowerCase(Locale.ROOT);
+            if (!UNCACHED_HEADERS.contains(lowerCaseName) && !lowerCaseName.startsWith("access-control-")) {
+                headers.addAll(name, values);
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private String cacheKey(ServerHttpRequest request, Scope scope) {
+        String principal = switch (scope) {
+            case SHARED -> "";
+            case ROLE -> String.valueOf(request.getHeaders().getFirst(AuthenticationFilter.USER_ROLES_HEADER));
+            case USER -> String.valueOf(request.getHeaders().getFirst(AuthenticationFilter.USER_ID_HEADER));
+        };
+        return scope + ":" + principal + ":" + request.getURI().getRawPath() + "?" + request.getURI().getRawQuery();
+    }
+
+    private static Long courseId(ServerHttpRequest request) {
+        Matcher matcher = COURSE_PATH.matcher(request.getURI().getRawPath());
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private static boolean notModified(ServerHttpRequest request, String etag) {
+        return request.getHeaders().getIfNoneMatch().stream()
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag));
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Who may share an entry: everyone, callers with the same roles, or only the same user
+     */
+    public enum Scope {
+        SHARED, ROLE, USER
+    }
+
+    @Data
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(5);
+        private Scope scope = Scope.SHARED;
+        private Duration coalesceTimeout = Duration.ofSeconds(10);
+    }
+}
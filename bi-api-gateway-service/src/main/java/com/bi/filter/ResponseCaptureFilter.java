@@ -0,0 +1,68 @@
+package com.bi.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * The upstream response is written by {@link NettyWriteResponseFilter}, which runs before
+ * any route filter and so never sees a response decorated by one. This filter decorates
+ * GET responses ahead of it; a route filter that wants the body registers a
+ * {@link BodyCapture} under {@link #CAPTURE_ATTR} and receives complete 200 JSON bodies.
+ * Everything else streams through untouched.
+ */
+@Component
+public class ResponseCaptureFilter implements GlobalFilter, Ordered {
+    public static final String CAPTURE_ATTR = ResponseCaptureFilter.class.getName() + ".capture";
+
+    @FunctionalInterface
+    public interface BodyCapture {
+        /**
+         * Called with the buffered body, must write the response itself
+         */
+        Mono<Void> write(ServerHttpResponse response, MediaType contentType, byte[] body);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                BodyCapture capture = exchange.getAttribute(CAPTURE_ATTR);
+                MediaType contentType = getHeaders().getContentType();
+                if (capture == null || !HttpStatus.OK.equals(getStatusCode()) || contentType == null
+                        || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(body).flatMap(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return capture.write(getDelegate(), contentType, bytes);
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
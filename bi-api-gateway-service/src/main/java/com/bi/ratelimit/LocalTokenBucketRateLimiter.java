@@ -0,0 +1,164 @@
+package com.bi.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Rate limiter that decides from an in-memory token bucket per route and caller, so a
+ * request costs no network hop. Every pod enforces the full per-caller limit on its own;
+ * the global budget is kept by pushing the tokens each bucket consumed to Redis in the
+ * background and blocking a bucket for the rest of the window once all pods together
+ * have used more than the window allows. The global check therefore lags by at most
+ * one sync interval, and if Redis is unavailable the limiter keeps working per pod.
+ * <p>
+ * Limits are set per route through {@code local-rate-limiter.*} filter arguments.
+ */
+@Component
+@Primary
+@Slf4j
+public class LocalTokenBucketRateLimiter extends AbstractRateLimiter<LocalTokenBucketRateLimiter.Config> {
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    private static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final Config defaultConfig;
+
+    @Value("${gateway.rate-limit.global.enabled:true}")
+    private boolean globalEnabled;
+
+    @Value("${gateway.rate-limit.global.sync-interval-ms:1000}")
+    private long syncIntervalMs;
+
+    @Value("${gateway.rate-limit.global.window-ms:10000}")
+    private long windowMs;
+
+    @Value("${gateway.rate-limit.global.key-prefix:rate-limit:}")
+    private String keyPrefix;
+
+    private Disposable sync;
+
+    private record BucketKey(String routeId, String id) {
+    }
+
+    @Data
+    @Validated
+    public static class Config {
+        @Min(1)
+        private int replenishRate;
+
+        @Min(1)
+        private int burstCapacity;
+
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+
+    public LocalTokenBucketRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                                       ConfigurationService configurationService,
+                                       @Value("${gateway.rate-limit.default.replenish-rate:10}") int replenishRate,
+                                       @Value("${gateway.rate-limit.default.burst-capacity:20}") int burstCapacity,
+                                       @Value("${gateway.rate-limit.max-buckets:100000}") long maxBuckets) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.defaultConfig = new Config();
+        this.defaultConfig.setReplenishRate(replenishRate);
+        this.defaultConfig.setBurstCapacity(burstCapacity);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (globalEnabled) {
+            sync = Flux.interval(Duration.ofMillis(syncIntervalMs))
+                    .onBackpressureDrop()
+                    .concatMap(tick -> syncGlobalBudget())
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sync != null) {
+            sync.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = loadConfiguration(routeId);
+        TokenBucket bucket = buckets.get(new BucketKey(routeId, id),
+                key -> new TokenBucket(config.getBurstCapacity(), System.nanoTime()));
+        long remaining = bucket.tryConsume(config.getRequestedTokens(), config.getReplenishRate(),
+                config.getBurstCapacity(), System.nanoTime(), System.currentTimeMillis());
+        return Mono.just(new Response(remaining >= 0, headers(config, Math.max(remaining, 0))));
+    }
+
+    private Config loadConfiguration(String routeId) {
+        return getConfig().getOrDefault(routeId, defaultConfig);
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        return Map.of(
+                REMAINING_HEADER, String.valueOf(remaining),
+                REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+    }
+
+    /**
+     * Add what each bucket consumed since the last sync to its Redis counter for the
+     * current window and block the buckets whose callers went over the global budget
+     */
+    private Mono<Void> syncGlobalBudget() {
+        long window = System.currentTimeMillis() / windowMs;
+        long windowEnd = (window + 1) * windowMs;
+        return Flux.fromIterable(buckets.asMap().entrySet())
+                .flatMap(entry -> {
+                    long consumed = entry.getValue().drainUnsynced();
+                    if (consumed == 0) {
+                        return Mono.empty();
+                    }
+                    BucketKey bucketKey = entry.getKey();
+                    Config config = loadConfiguration(bucketKey.routeId());
+                    long budget = config.getReplenishRate() * windowMs / 1000 + config.getBurstCapacity();
+                    String key = keyPrefix + bucketKey.routeId() + ":" + bucketKey.id() + ":" + window;
+                    return redisTemplate.opsForValue().increment(key, consumed)
+                            .flatMap(total -> redisTemplate.expire(key, Duration.ofMillis(windowMs * 2))
+                                    .thenReturn(total))
+                            .doOnNext(total -> {
+                                if (total > budget) {
+                                    entry.getValue().blockUntil(windowEnd);
+                                }
+                            });
+                }, 64)
+                .then()
+                .onErrorResume(e -> {
+                    log.debug("Global rate limit sync failed, limiting per pod only: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
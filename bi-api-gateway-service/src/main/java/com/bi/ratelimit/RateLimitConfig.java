@@ -0,0 +1,43 @@
+package com.bi.ratelimit;
+
+import com.bi.security.JwtTokenVerifier;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@Configuration
+public class RateLimitConfig {
+
+    // Trust only the address appended by our own ingress, clients can forge the rest
+    private static final XForwardedRemoteAddressResolver CLIENT_ADDRESS =
+            XForwardedRemoteAddressResolver.maxTrustedIndex(1);
+
+    /**
+     * Rate limit key: the JWT subject for authenticated calls, the client address otherwise.
+     * Rate limiting runs before authentication, the token verifier cache makes the
+     * lookup cheap and the authentication filter still rejects invalid tokens later.
+     */
+    @Bean
+    public KeyResolver userKeyResolver(JwtTokenVerifier tokenVerifier) {
+        return exchange -> {
+            String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                try {
+                    String subject = tokenVerifier.verify(authHeader.substring(7)).subject();
+                    if (subject != null) {
+                        return Mono.just("user:" + subject);
+                    }
+                } catch (RuntimeException e) {
+                    // Fall through to the client address
+                }
+            }
+            InetSocketAddress address = CLIENT_ADDRESS.resolve(exchange);
+            return Mono.just("ip:" + (address != null ? address.getHostString() : "unknown"));
+        };
+    }
+}
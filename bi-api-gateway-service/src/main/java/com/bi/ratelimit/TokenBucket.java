@@ -0,0 +1,44 @@
+package com.bi.ratelimit;
+
+/**
+ * Token bucket for one caller on one route, refilled lazily on every request.
+ * It also counts the tokens taken since the last global sync and can be blocked
+ * until a point in time when the global budget for its window is used up.
+ */
+class TokenBucket {
+    private double tokens;
+    private long lastRefillNanos;
+    private long unsynced;
+    private long blockedUntilMillis;
+
+    TokenBucket(int capacity, long nowNanos) {
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * @return tokens left after the request, or -1 if it was rejected
+     */
+    synchronized long tryConsume(int requested, int replenishRate, int capacity, long nowNanos, long nowMillis) {
+        double elapsedSeconds = (nowNanos - lastRefillNanos) / 1_000_000_000.0;
+        tokens = Math.min(capacity, tokens + elapsedSeconds * replenishRate);
+        lastRefillNanos = nowNanos;
+
+        if (nowMillis < blockedUntilMillis || tokens < requested) {
+            return -1;
+        }
+        tokens -= requested;
+        unsynced += requested;
+        return (long) tokens;
+    }
+
+    synchronized long drainUnsynced() {
+        long drained = unsynced;
+        unsynced = 0;
+        return drained;
+    }
+
+    synchronized void blockUntil(long millis) {
+        blockedUntilMillis = Math.max(blockedUntilMillis, millis);
+    }
+}
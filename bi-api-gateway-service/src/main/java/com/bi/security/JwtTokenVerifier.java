@@ -0,0 +1,103 @@
+package com.bi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Verifies bearer tokens against the shared HMAC key. The key and parser are built once,
+ * and verified tokens are cached by their SHA-256 hash until they expire, so a client
+ * reusing its token pays for the signature check and claim parsing only once.
+ * Rejected tokens are never cached.
+ */
+@Component
+public class JwtTokenVerifier {
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verified;
+    private final String rolesClaim;
+    private final Duration maxCacheTtl;
+
+    public record VerifiedToken(String subject, List<String> roles, Instant expiresAt) {
+    }
+
+    public JwtTokenVerifier(@Value("${jwt.secret-key}") String secretKey,
+                            @Value("${jwt.roles-claim:roles}") String rolesClaim,
+                            @Value("${jwt.cache.maximum-size:100000}") long maximumSize,
+                            @Value("${jwt.cache.max-ttl:5m}") Duration maxCacheTtl) {
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey)))
+                .build();
+        this.rolesClaim = rolesClaim;
+        this.maxCacheTtl = maxCacheTtl;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String hash, VerifiedToken token) -> ttl(token)))
+                .build();
+    }
+
+    /**
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verify(String token) {
+        String hash = hash(token);
+        VerifiedToken cached = verified.getIfPresent(hash);
+        if (cached != null && (cached.expiresAt() == null || cached.expiresAt().isAfter(Instant.now()))) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        VerifiedToken verifiedToken = new VerifiedToken(claims.getSubject(), roles(claims),
+                expiration != null ? expiration.toInstant() : null);
+        verified.put(hash, verifiedToken);
+        return verifiedToken;
+    }
+
+    private List<String> roles(Claims claims) {
+        Object roles = claims.get(rolesClaim);
+        if (roles instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        return roles != null ? List.of(String.valueOf(roles)) : List.of();
+    }
+
+    /**
+     * Until the token expires, capped so tokens without exp are re-verified now and then
+     */
+    private Duration ttl(VerifiedToken token) {
+        if (token.expiresAt() == null) {
+            return maxCacheTtl;
+        }
+        Duration untilExpiry = Duration.between(Instant.now(), token.expiresAt());
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilExpiry.compareTo(maxCacheTtl) < 0 ? untilExpiry : maxCacheTtl;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
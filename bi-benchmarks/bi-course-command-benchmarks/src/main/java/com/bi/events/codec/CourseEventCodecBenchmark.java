@@ -0,0 +1,78 @@
+package com.bi.events.codec;
+
+import com.bi.events.CourseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of course event serialization per event. {@code legacyRelayRoundTrip} is what the
+ * outbox publisher used to do for every event (parse the stored JSON, serialize it again);
+ * the relay now forwards the stored bytes, so only the encode on the write path remains.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CourseEventCodecBenchmark {
+    private ObjectMapper objectMapper;
+    private JsonCourseEventCodec json;
+    private AvroCourseEventCodec avro;
+    private CourseEvent event;
+    private String storedJson;
+    private byte[] jsonBytes;
+    private byte[] avroBytes;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        json = new JsonCourseEventCodec(objectMapper);
+        avro = new AvroCourseEventCodec();
+        event = new CourseEvent("COURSE_UPDATED", 123_456L, "Distributed Systems with Spring and Kafka",
+                "x".repeat(500), 149.99,
+                IntStream.range(0, 12).mapToObj(i -> "tag-" + i).toArray(String[]::new),
+                42L, "PUBLISHED", System.currentTimeMillis(), 7L);
+        jsonBytes = json.encode(event);
+        storedJson = new String(jsonBytes, StandardCharsets.UTF_8);
+        avroBytes = avro.encode(event);
+    }
+
+    @Benchmark
+    public byte[] legacyRelayRoundTrip() throws Exception {
+        return objectMapper.writeValueAsBytes(objectMapper.readValue(storedJson, CourseEvent.class));
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return json.encode(event);
+    }
+
+    @Benchmark
+    public byte[] encodeAvro() {
+        return avro.encode(event);
+    }
+
+    @Benchmark
+    public CourseEvent decodeJson() {
+        return json.decode(jsonBytes);
+    }
+
+    @Benchmark
+    public CourseEvent decodeAvro() {
+        return avro.decode(avroBytes);
+    }
+}
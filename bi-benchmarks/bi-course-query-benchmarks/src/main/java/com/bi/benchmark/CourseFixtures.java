@@ -0,0 +1,73 @@
+package com.bi.benchmark;
+
+import com.bi.document.CourseDocument;
+import com.bi.dto.response.CourseDTO;
+import com.bi.search.SearchTokenizer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Courses at realistic sizes: 500 character descriptions and 12 tags
+ */
+public final class CourseFixtures {
+
+    private CourseFixtures() {
+    }
+
+    public static List<CourseDocument> documents(int count) {
+        return LongStream.range(0, count).mapToObj(CourseFixtures::document).toList();
+    }
+
+    public static List<CourseDTO> dtos(int count) {
+        return LongStream.range(0, count).mapToObj(CourseFixtures::dto).toList();
+    }
+
+    public static CourseDocument document(long id) {
+        String[] tags = tags();
+        String description = description(id);
+        return CourseDocument.builder()
+                .courseId(id)
+                .name("Course " + id + " on distributed systems")
+                .description(description)
+                .price(19.99 + id)
+                .tags(tags)
+                .instructorId(id % 50)
+                .status("PUBLISHED")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .lastEventTimestamp(System.currentTimeMillis())
+                .version(3L)
+                .searchTokens(SearchTokenizer.tokenize(description))
+                .build();
+    }
+
+    public static CourseDTO dto(long id) {
+        return CourseDTO.builder()
+                .id(id)
+                .name("Course " + id + " on distributed systems")
+                .description(description(id))
+                .price(19.99 + id)
+                .tags(tags())
+                .instructorId(id % 50)
+                .status("PUBLISHED")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .version(3L)
+                .build();
+    }
+
+    private static String description(long id) {
+        StringBuilder description = new StringBuilder();
+        while (description.length() < 500) {
+            description.append("Lesson ").append(id).append(" covers event sourcing and caching. ");
+        }
+        return description.substring(0, 500);
+    }
+
+    private static String[] tags() {
+        return IntStream.range(0, 12).mapToObj(i -> "tag-" + i).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,80 @@
+package com.bi.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@code @Cacheable} key of the course listing: the SpEL expression as the
+ * cache interceptor evaluates it (fresh evaluation context per call, parsed expression
+ * reused) against calling the key builder directly. Generations are served from the
+ * local copy, as they are between refreshes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheKeyBenchmark {
+    private CourseCacheKeys cacheKeys;
+    private Expression pageKey;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        cacheKeys = new CourseCacheKeys(stubRedisTemplate(), null);
+        Field refresh = CourseCacheKeys.class.getDeclaredField("generationRefreshMs");
+        refresh.setAccessible(true);
+        refresh.setLong(cacheKeys, Long.MAX_VALUE);
+        cacheKeys.generation(CourseCacheKeys.PAGES);
+
+        pageKey = new SpelExpressionParser().parseExpression("@courseCacheKeys.page(#pageable, #includeArchived)");
+        pageable = PageRequest.of(3, 20);
+    }
+
+    @Benchmark
+    public String directKey() {
+        return cacheKeys.page(pageable, false);
+    }
+
+    @Benchmark
+    public Object spelKey() {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setBeanResolver((evaluationContext, beanName) -> cacheKeys);
+        context.setVariable("pageable", pageable);
+        context.setVariable("includeArchived", false);
+        return pageKey.getValue(context);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static StringRedisTemplate stubRedisTemplate() {
+        ValueOperations<String, String> values = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                CacheKeyBenchmark.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> method.getName().equals("get") ? "0" : null);
+        return new StringRedisTemplate() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return values;
+            }
+        };
+    }
+}
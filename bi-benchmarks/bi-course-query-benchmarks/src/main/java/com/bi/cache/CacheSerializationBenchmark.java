@@ -0,0 +1,76 @@
+package com.bi.cache;
+
+import com.bi.benchmark.CourseFixtures;
+import com.bi.dto.response.CourseDTO;
+import com.bi.dto.response.PageResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis tier serialization of a cached page, JSON against Avro
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private Jackson2JsonRedisSerializer<CacheEnvelope<PageResponse<CourseDTO>>> json;
+    private AvroCacheSerializer<PageResponse<CourseDTO>> avro;
+    private CacheEnvelope<PageResponse<CourseDTO>> envelope;
+    private byte[] jsonBytes;
+    private byte[] avroBytes;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        JavaType pageType = objectMapper.getTypeFactory().constructParametricType(CacheEnvelope.class,
+                objectMapper.getTypeFactory().constructParametricType(PageResponse.class, CourseDTO.class));
+        json = new Jackson2JsonRedisSerializer<>(objectMapper, pageType);
+        avro = AvroCacheSerializer.page();
+        envelope = new CacheEnvelope<>(new PageResponse<>(CourseFixtures.dtos(pageSize), 0, pageSize, 1_000),
+                System.currentTimeMillis(), 12);
+        jsonBytes = json.serialize(envelope);
+        avroBytes = avro.serialize(envelope);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return json.serialize(envelope);
+    }
+
+    @Benchmark
+    public byte[] serializeAvro() {
+        return avro.serialize(envelope);
+    }
+
+    @Benchmark
+    public Object deserializeJson() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public Object deserializeAvro() {
+        return avro.deserialize(avroBytes);
+    }
+}
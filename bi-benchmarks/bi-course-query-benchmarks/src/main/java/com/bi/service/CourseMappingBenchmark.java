@@ -0,0 +1,48 @@
+package com.bi.service;
+
+import com.bi.benchmark.CourseFixtures;
+import com.bi.document.CourseDocument;
+import com.bi.dto.response.CourseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Document to DTO mapping of a listing or search page
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CourseMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private List<CourseDocument> documents;
+
+    @Setup
+    public void setUp() {
+        documents = CourseFixtures.documents(pageSize);
+    }
+
+    @Benchmark
+    public List<CourseDTO> mapPage() {
+        return documents.stream()
+                .map(CourseQueryService::mapToDTO)
+                .toList();
+    }
+}
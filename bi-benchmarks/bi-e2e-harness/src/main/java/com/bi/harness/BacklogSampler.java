@@ -0,0 +1,62 @@
+package com.bi.harness;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the number of unpublished outbox events at a fixed interval for the whole run
+ */
+final class BacklogSampler implements AutoCloseable {
+    private static final String QUERY = "SELECT count(*) FILTER (WHERE status = 'PENDING'), "
+            + "count(*) FILTER (WHERE status = 'FAILED') FROM outbox_events";
+
+    private final Connection connection;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<Sample> samples = new ArrayList<>();
+    private final long startedAt = System.nanoTime();
+
+    record Sample(long elapsedMs, long pending, long failed) {
+    }
+
+    BacklogSampler(String jdbcUrl, String username, String password, Duration interval) throws SQLException {
+        this.connection = DriverManager.getConnection(jdbcUrl, username, password);
+        scheduler.scheduleAtFixedRate(this::sample, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    synchronized Sample latest() {
+        return samples.isEmpty() ? new Sample(0, 0, 0) : samples.get(samples.size() - 1);
+    }
+
+    synchronized List<Sample> samples() {
+        return List.copyOf(samples);
+    }
+
+    private void sample() {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(QUERY)) {
+            result.next();
+            Sample sample = new Sample(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+                    result.getLong(1), result.getLong(2));
+            synchronized (this) {
+                samples.add(sample);
+            }
+        } catch (SQLException e) {
+            // The table appears once the command service has started; skip until then
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        scheduler.shutdownNow();
+        connection.close();
+    }
+}
@@ -0,0 +1,57 @@
+package com.bi.harness;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Harness settings, overridable as {@code --name=value} arguments. Paths are relative
+ * to the directory the harness is started from (the repository root by default).
+ *
+ * @param rates             write rates (updates per second) stepped through until one is not sustainable
+ * @param readRate          reads per second issued alongside the writes
+ * @param propagationSlo    p99 write-to-read latency a step must stay under to count as sustainable
+ * @param propagationTimeout a change not visible after this long counts as lost
+ */
+record HarnessConfig(Path commandJar,
+                     Path queryJar,
+                     Path reportDir,
+                     int courses,
+                     List<Integer> rates,
+                     Duration stepDuration,
+                     int readRate,
+                     Duration propagationSlo,
+                     Duration pollInterval,
+                     Duration propagationTimeout,
+                     Duration backlogSampleInterval) {
+
+    static HarnessConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return new HarnessConfig(
+                Path.of(values.getOrDefault("command-jar",
+                        "bi-course-command-service/target/bi-course-command-service-1.0.0-exec.jar")),
+                Path.of(values.getOrDefault("query-jar",
+                        "bi-course-query-service/target/bi-course-query-service-1.0.0-exec.jar")),
+                Path.of(values.getOrDefault("report-dir", "bi-benchmarks/bi-e2e-harness/target/harness")),
+                Integer.parseInt(values.getOrDefault("courses", "500")),
+                Arrays.stream(values.getOrDefault("rates", "25,50,100,200,400").split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .toList(),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("step-seconds", "30"))),
+                Integer.parseInt(values.getOrDefault("read-rate", "200")),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("propagation-slo-ms", "1000"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("poll-interval-ms", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("propagation-timeout-seconds", "30"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("backlog-sample-ms", "250"))));
+    }
+}
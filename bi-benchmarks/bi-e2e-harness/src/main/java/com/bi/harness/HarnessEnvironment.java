@@ -0,0 +1,171 @@
+package com.bi.harness;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * Postgres, Kafka, MongoDB and Redis in containers, and the command and query services
+ * started from their executable jars against them, each on a free local port.
+ */
+final class HarnessEnvironment implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(HarnessEnvironment.class);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+            .withDatabaseName("course_command_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+    private final ConfluentKafkaContainer kafka = new ConfluentKafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.1"));
+    private final GenericContainer<?> mongo = new GenericContainer<>(DockerImageName.parse("mongo:7"))
+            .withEnv("MONGO_INITDB_ROOT_USERNAME", "mongodb")
+            .withEnv("MONGO_INITDB_ROOT_PASSWORD", "mongodb")
+            .withExposedPorts(27017);
+    private final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withCommand("redis-server", "--requirepass", "redis")
+            .withExposedPorts(6379);
+
+    private final List<Process> services = new ArrayList<>();
+    private URI commandUri;
+    private URI queryUri;
+
+    void start(HarnessConfig config, HttpClient http) throws IOException, InterruptedException {
+        requireJar(config.commandJar());
+        requireJar(config.queryJar());
+        Files.createDirectories(config.reportDir());
+
+        log.info("Starting containers");
+        Startables.deepStart(postgres, kafka, mongo, redis).join();
+
+        int commandPort = freePort();
+        commandUri = URI.create("http://localhost:" + commandPort + "/courses");
+        services.add(launch(config.commandJar(), config.reportDir().resolve("command-service.log"), List.of(
+                "--server.port=" + commandPort,
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.kafka.bootstrap-servers=" + kafka.getBootstrapServers())));
+
+        int queryPort = freePort();
+        queryUri = URI.create("http://localhost:" + queryPort + "/courses-query");
+        services.add(launch(config.queryJar(), config.reportDir().resolve("query-service.log"), List.of(
+                "--server.port=" + queryPort,
+                "--spring.data.mongodb.host=" + mongo.getHost(),
+                "--spring.data.mongodb.port=" + mongo.getMappedPort(27017),
+                "--spring.data.mongodb.authentication-database=admin",
+                "--spring.redis.host=" + redis.getHost(),
+                "--spring.redis.port=" + redis.getMappedPort(6379),
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getMappedPort(6379),
+                "--spring.data.redis.password=redis",
+                "--spring.kafka.bootstrap-servers=" + kafka.getBootstrapServers())));
+
+        // Any response from the command service means it is serving; a missing course is a 404
+        awaitReady(http, URI.create(commandUri + "/0"), status -> status > 0);
+        awaitReady(http, URI.create(queryUri + "?page=0&size=1"), status -> status == 200);
+        log.info("Services ready: command {}, query {}", commandUri, queryUri);
+    }
+
+    URI commandUri() {
+        return commandUri;
+    }
+
+    URI queryUri() {
+        return queryUri;
+    }
+
+    String jdbcUrl() {
+        return postgres.getJdbcUrl();
+    }
+
+    String jdbcUsername() {
+        return postgres.getUsername();
+    }
+
+    String jdbcPassword() {
+        return postgres.getPassword();
+    }
+
+    private static Process launch(Path jar, Path logFile, List<String> args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(args);
+        log.info("Launching {} (log: {})", jar.getFileName(), logFile);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+    }
+
+    private void awaitReady(HttpClient http, URI probe, IntPredicate ready) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(probe).timeout(Duration.ofSeconds(2)).GET().build();
+        while (System.nanoTime() < deadline) {
+            if (services.stream().anyMatch(service -> !service.isAlive())) {
+                throw new IllegalStateException("A service exited during startup, see its log in the report directory");
+            }
+            try {
+                if (ready.test(http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode())) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Timed out waiting for " + probe);
+    }
+
+    private static void requireJar(Path jar) {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("Missing " + jar + ", build the services with mvn package first");
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Process service : services) {
+            service.destroy();
+        }
+        for (Process service : services) {
+            try {
+                if (!service.waitFor(30, TimeUnit.SECONDS)) {
+                    service.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                service.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        redis.stop();
+        mongo.stop();
+        kafka.stop();
+        postgres.stop();
+    }
+}
@@ -0,0 +1,40 @@
+package com.bi.harness;
+
+import java.util.Arrays;
+
+/**
+ * Collects latencies of one step and reports percentiles in milliseconds
+ */
+final class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int count;
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized Summary summary() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(count, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                count == 0 ? 0 : millis(sorted[count - 1]));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return millis(sorted[Math.max(0, index)]);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+
+    record Summary(int count, double p50Ms, double p99Ms, double maxMs) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.bi.harness;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how long an acknowledged write takes to become readable: after each write
+ * the course is polled on the query service until its ETag reaches the written version.
+ * Polls are per course, not per write, so at most one read per course is in flight and
+ * the probe load stays bounded by the number of courses being written.
+ */
+final class PropagationTracker implements AutoCloseable {
+    private final HttpClient http;
+    private final URI queryUri;
+    private final long timeoutNanos;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor();
+    private final Map<Long, Queue<Pending>> pendingByCourse = new ConcurrentHashMap<>();
+    private final Set<Long> polling = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger lost = new AtomicInteger();
+    private volatile LatencyRecorder recorder = new LatencyRecorder();
+
+    private record Pending(long version, long acknowledgedAt) {
+    }
+
+    PropagationTracker(HttpClient http, URI queryUri, Duration pollInterval, Duration timeout) {
+        this.http = http;
+        this.queryUri = queryUri;
+        this.timeoutNanos = timeout.toNanos();
+        poller.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void expect(long courseId, long version, long acknowledgedAt) {
+        pendingByCourse.computeIfAbsent(courseId, id -> new ConcurrentLinkedQueue<>())
+                .add(new Pending(version, acknowledgedAt));
+    }
+
+    /**
+     * Start a new step, returning the latencies and lost count of the previous one
+     */
+    Result reset() {
+        LatencyRecorder previous = recorder;
+        recorder = new LatencyRecorder();
+        return new Result(previous.summary(), lost.getAndSet(0));
+    }
+
+    int outstanding() {
+        return pendingByCourse.values().stream().mapToInt(Queue::size).sum();
+    }
+
+    /**
+     * Wait until every write is visible or has timed out
+     */
+    void drain() throws InterruptedException {
+        while (outstanding() > 0) {
+            Thread.sleep(50);
+        }
+    }
+
+    private void poll() {
+        long now = System.nanoTime();
+        pendingByCourse.forEach((courseId, pending) -> {
+            expire(pending, now);
+            if (pending.isEmpty() || !polling.add(courseId)) {
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(queryUri + "/" + courseId))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        polling.remove(courseId);
+                        if (response != null && response.statusCode() == 200) {
+                            response.headers().firstValue("ETag")
+                                    .map(PropagationTracker::version)
+                                    .ifPresent(version -> complete(pending, version, System.nanoTime()));
+                        }
+                    });
+        });
+    }
+
+    private void complete(Queue<Pending> pending, long visibleVersion, long now) {
+        LatencyRecorder current = recorder;
+        Iterator<Pending> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Pending write = iterator.next();
+            if (write.version() <= visibleVersion) {
+                current.record(now - write.acknowledgedAt());
+                iterator.remove();
+            }
+        }
+    }
+
+    private void expire(Queue<Pending> pending, long now) {
+        pending.removeIf(write -> {
+            boolean expired = now - write.acknowledgedAt() > timeoutNanos;
+            if (expired) {
+                lost.incrementAndGet();
+            }
+            return expired;
+        });
+    }
+
+    static long version(String eTag) {
+        String tag = eTag.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        return Long.parseLong(tag.replace("\"", ""));
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    record Result(LatencyRecorder.Summary latency, int lost) {
+    }
+}
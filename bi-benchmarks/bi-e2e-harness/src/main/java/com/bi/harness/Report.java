@@ -0,0 +1,72 @@
+package com.bi.harness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@code report.json} and {@code report.md} into the report directory
+ */
+final class Report {
+
+    private Report() {
+    }
+
+    static Path write(HarnessConfig config, List<StepResult> steps, List<BacklogSampler.Sample> backlog)
+            throws IOException {
+        Integer maxSustainable = maxSustainableRate(steps);
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("maxSustainableWriteRate", maxSustainable);
+        json.put("propagationSloMs", config.propagationSlo().toMillis());
+        json.put("stepSeconds", config.stepDuration().toSeconds());
+        json.put("readRate", config.readRate());
+        json.put("courses", config.courses());
+        json.put("steps", steps);
+        json.put("backlog", backlog);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(config.reportDir().resolve("report.json").toFile(), json);
+
+        StringBuilder markdown = new StringBuilder()
+                .append("# Write-to-read harness\n\n")
+                .append("Max sustainable write rate: ")
+                .append(maxSustainable == null ? "none of the steps" : maxSustainable + " writes/s")
+                .append(" (propagation p99 SLO ").append(config.propagationSlo().toMillis()).append(" ms, ")
+                .append(config.readRate()).append(" reads/s, ")
+                .append(config.stepDuration().toSeconds()).append(" s steps, ")
+                .append(config.courses()).append(" courses)\n\n")
+                .append("| Target w/s | Achieved w/s | Achieved r/s | Write p50/p99 ms | Read p50/p99 ms "
+                        + "| Propagation p50/p99/max ms | Conflicts | Errors | Peak backlog | Result |\n")
+                .append("| --- | --- | --- | --- | --- | --- | --- | --- | --- | --- |\n");
+        for (StepResult step : steps) {
+            markdown.append(String.format("| %d | %.1f | %.1f | %.1f / %.1f | %.1f / %.1f | %.1f / %.1f / %.1f | %d | %d | %d | %s |%n",
+                    step.targetWriteRate(), step.achievedWriteRate(), step.achievedReadRate(),
+                    step.writeLatency().p50Ms(), step.writeLatency().p99Ms(),
+                    step.readLatency().p50Ms(), step.readLatency().p99Ms(),
+                    step.propagationLatency().p50Ms(), step.propagationLatency().p99Ms(),
+                    step.propagationLatency().maxMs(),
+                    step.conflicts(), step.errors(), step.peakBacklog(),
+                    step.sustainable() ? "sustainable" : String.join("; ", step.violations())));
+        }
+        Path path = config.reportDir().resolve("report.md");
+        Files.writeString(path, markdown);
+        return path;
+    }
+
+    private static Integer maxSustainableRate(List<StepResult> steps) {
+        Integer rate = null;
+        for (StepResult step : steps) {
+            if (!step.sustainable()) {
+                break;
+            }
+            rate = step.targetWriteRate();
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,50 @@
+package com.bi.harness;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of one load step. A step is sustainable when the services kept up with the
+ * offered write rate, writes became readable within the SLO and the outbox did not
+ * build a backlog that outlives the step.
+ */
+record StepResult(int targetWriteRate,
+                  double achievedWriteRate,
+                  double achievedReadRate,
+                  LatencyRecorder.Summary writeLatency,
+                  LatencyRecorder.Summary readLatency,
+                  LatencyRecorder.Summary propagationLatency,
+                  long conflicts,
+                  long errors,
+                  int lostPropagations,
+                  long peakBacklog,
+                  long endBacklog,
+                  List<String> violations) {
+
+    boolean sustainable() {
+        return violations.isEmpty();
+    }
+
+    static List<String> violations(HarnessConfig config, int targetWriteRate, double achievedWriteRate,
+                                   long requests, long errors, int lostPropagations,
+                                   LatencyRecorder.Summary propagationLatency, long endBacklog) {
+        List<String> violations = new ArrayList<>();
+        if (achievedWriteRate < targetWriteRate * 0.95) {
+            violations.add(String.format("achieved %.1f of %d writes/s", achievedWriteRate, targetWriteRate));
+        }
+        if (requests > 0 && errors * 100 > requests) {
+            violations.add(String.format("%d errors in %d requests", errors, requests));
+        }
+        if (lostPropagations > 0) {
+            violations.add(lostPropagations + " writes not readable within " + config.propagationTimeout().toSeconds() + "s");
+        }
+        if (propagationLatency.p99Ms() > config.propagationSlo().toMillis()) {
+            violations.add(String.format("propagation p99 %.1f ms over the %d ms SLO",
+                    propagationLatency.p99Ms(), config.propagationSlo().toMillis()));
+        }
+        if (endBacklog > targetWriteRate) {
+            violations.add(endBacklog + " outbox events still pending after the step");
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,218 @@
+package com.bi.harness;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Steps the course update rate up under a constant read load and reports, per step,
+ * request latencies, write-to-read propagation latency and the outbox backlog, stopping
+ * at the first rate the services cannot sustain.
+ *
+ * <p>Load is open-model: requests are issued on a fixed schedule whether or not earlier
+ * ones have completed, so a slow service shows up as latency and backlog instead of
+ * silently lowering the offered rate.
+ */
+public final class WriteToReadHarness {
+    private static final Logger log = LoggerFactory.getLogger(WriteToReadHarness.class);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int PAGE_SIZE = 20;
+
+    private final HarnessConfig config;
+    private final HarnessEnvironment environment;
+    private final HttpClient http;
+    private final List<Long> courseIds = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private WriteToReadHarness(HarnessConfig config, HarnessEnvironment environment, HttpClient http) {
+        this.config = config;
+        this.environment = environment;
+        this.http = http;
+    }
+
+    public static void main(String[] args) throws Exception {
+        HarnessConfig config = HarnessConfig.parse(args);
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(Executors.newFixedThreadPool(32))
+                .build();
+        try (HarnessEnvironment environment = new HarnessEnvironment()) {
+            environment.start(config, http);
+            new WriteToReadHarness(config, environment, http).run();
+        }
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        try (PropagationTracker propagation = new PropagationTracker(http, environment.queryUri(),
+                     config.pollInterval(), config.propagationTimeout());
+             BacklogSampler backlog = new BacklogSampler(environment.jdbcUrl(), environment.jdbcUsername(),
+                     environment.jdbcPassword(), config.backlogSampleInterval())) {
+            seed(propagation);
+
+            List<StepResult> steps = new ArrayList<>();
+            for (int rate : config.rates()) {
+                StepResult step = runStep(rate, propagation, backlog);
+                steps.add(step);
+                log.info("{} writes/s: {}", rate, step.sustainable() ? "sustainable" : step.violations());
+                if (!step.sustainable()) {
+                    break;
+                }
+            }
+            log.info("Report written to {}", Report.write(config, steps, backlog.samples()));
+        }
+    }
+
+    /**
+     * Create the courses the load updates and wait until all of them are readable
+     */
+    private void seed(PropagationTracker propagation) throws Exception {
+        log.info("Seeding {} courses", config.courses());
+        for (int i = 0; i < config.courses(); i++) {
+            String body = String.format("{\"name\":\"Harness course %d\",\"description\":\"%s\",\"price\":%d.99,"
+                    + "\"tags\":[\"harness\",\"load\"],\"instructorId\":%d}", i, "x".repeat(200), 10 + i % 90, 1 + i % 50);
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(environment.commandUri())
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            Long courseId = Long.valueOf(response.body().trim());
+            courseIds.add(courseId);
+            propagation.expect(courseId, 0, System.nanoTime());
+        }
+        propagation.drain();
+        PropagationTracker.Result seeded = propagation.reset();
+        if (seeded.lost() > 0) {
+            throw new IllegalStateException(seeded.lost() + " seeded courses never became readable");
+        }
+    }
+
+    private StepResult runStep(int writeRate, PropagationTracker propagation, BacklogSampler backlog)
+            throws InterruptedException {
+        log.info("Step: {} writes/s, {} reads/s for {}s", writeRate, config.readRate(), config.stepDuration().toSeconds());
+        LatencyRecorder writeLatency = new LatencyRecorder();
+        LatencyRecorder readLatency = new LatencyRecorder();
+        AtomicLong writes = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        long startedAt = System.nanoTime();
+        long backlogBefore = backlog.samples().size();
+        ScheduledFuture<?> writeLoad = scheduler.scheduleAtFixedRate(
+                () -> update(propagation, writeLatency, writes, conflicts, errors),
+                0, TimeUnit.SECONDS.toNanos(1) / writeRate, TimeUnit.NANOSECONDS);
+        ScheduledFuture<?> readLoad = scheduler.scheduleAtFixedRate(
+                () -> read(readLatency, reads, errors),
+                0, TimeUnit.SECONDS.toNanos(1) / config.readRate(), TimeUnit.NANOSECONDS);
+
+        Thread.sleep(config.stepDuration().toMillis());
+        writeLoad.cancel(false);
+        readLoad.cancel(false);
+        scheduler.shutdown();
+        long endBacklog = backlog.latest().pending() + backlog.latest().failed();
+        // Requests still in flight belong to this step
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+        propagation.drain();
+        PropagationTracker.Result propagated = propagation.reset();
+        long peakBacklog = backlog.samples().stream()
+                .skip(backlogBefore)
+                .mapToLong(sample -> sample.pending() + sample.failed())
+                .max()
+                .orElse(0);
+
+        double achievedWriteRate = writes.get() / seconds;
+        List<String> violations = StepResult.violations(config, writeRate, achievedWriteRate,
+                writes.get() + reads.get(), errors.get(), propagated.lost(), propagated.latency(), endBacklog);
+        return new StepResult(writeRate, achievedWriteRate, reads.get() / seconds,
+                writeLatency.summary(), readLatency.summary(), propagated.latency(),
+                conflicts.get(), errors.get(), propagated.lost(), peakBacklog, endBacklog, violations);
+    }
+
+    /**
+     * Change the price of a random course. Updates are unconditional, so a 412 means two
+     * updates of the same course collided on the version check; it counts as a completed
+     * write but not as a change to wait for.
+     */
+    private void update(PropagationTracker propagation, LatencyRecorder latency,
+                        AtomicLong writes, AtomicLong conflicts, AtomicLong errors) {
+        long courseId = randomCourse();
+        String body = String.format("{\"price\":%d.%02d}",
+                ThreadLocalRandom.current().nextInt(10, 500), ThreadLocalRandom.current().nextInt(100));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(environment.commandUri() + "/" + courseId))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long sentAt = System.nanoTime();
+        inFlight.incrementAndGet();
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+            inFlight.decrementAndGet();
+            long now = System.nanoTime();
+            if (response == null) {
+                errors.incrementAndGet();
+                return;
+            }
+            latency.record(now - sentAt);
+            if (response.statusCode() == 412) {
+                writes.incrementAndGet();
+                conflicts.incrementAndGet();
+            } else if (response.statusCode() == 200) {
+                writes.incrementAndGet();
+                response.headers().firstValue("ETag")
+                        .ifPresent(eTag -> propagation.expect(courseId, PropagationTracker.version(eTag), now));
+            } else {
+                errors.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Four in five reads fetch a single course, the rest a listing page
+     */
+    private void read(LatencyRecorder latency, AtomicLong reads, AtomicLong errors) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        URI uri = random.nextInt(5) < 4
+                ? URI.create(environment.queryUri() + "/" + randomCourse())
+                : URI.create(environment.queryUri() + "?page=" + random.nextInt(Math.max(1, config.courses() / PAGE_SIZE))
+                        + "&size=" + PAGE_SIZE);
+        long sentAt = System.nanoTime();
+        inFlight.incrementAndGet();
+        http.sendAsync(HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+            inFlight.decrementAndGet();
+            if (response != null && response.statusCode() == 200) {
+                latency.record(System.nanoTime() - sentAt);
+                reads.incrementAndGet();
+            } else {
+                errors.incrementAndGet();
+            }
+        });
+    }
+
+    private long randomCourse() {
+        return courseIds.get(ThreadLocalRandom.current().nextInt(courseIds.size()));
+    }
+}
@@ -0,0 +1,183 @@
+package com.bi.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Avro binary payloads with a leading schema version byte, written and read field by
+ * field against the current schema instead of through generic records. Each thread
+ * reuses its output buffer, encoder and decoder, so a payload costs its own bytes and
+ * the decoded object and little else.
+ * <p>
+ * The field helpers follow the {@code ["null", T]} union layout of the optional
+ * fields in the .avsc files: branch 0 is null, branch 1 the value.
+ */
+public final class AvroBinary {
+    private static final ThreadLocal<Writer> WRITERS = ThreadLocal.withInitial(Writer::new);
+    private static final ThreadLocal<BinaryDecoder[]> DECODERS = ThreadLocal.withInitial(() -> new BinaryDecoder[1]);
+
+    private AvroBinary() {
+    }
+
+    @FunctionalInterface
+    public interface FieldWriter<T> {
+        void write(BinaryEncoder encoder, T value) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface FieldReader<T> {
+        T read(BinaryDecoder decoder) throws IOException;
+    }
+
+    /**
+     * @return {@code version} followed by the fields {@code fields} writes
+     */
+    public static <T> byte[] encode(byte version, T value, FieldWriter<T> fields) throws IOException {
+        Writer writer = WRITERS.get();
+        // Reconfiguring flushes what a failed write left in the encoder, so reset after it
+        writer.encoder = EncoderFactory.get().binaryEncoder(writer.out, writer.encoder);
+        writer.out.reset();
+        writer.out.write(version);
+        fields.write(writer.encoder, value);
+        writer.encoder.flush();
+        return writer.out.toByteArray();
+    }
+
+    /**
+     * Read the fields that follow the version byte
+     */
+    public static <T> T decode(byte[] payload, FieldReader<T> fields) throws IOException {
+        BinaryDecoder[] decoder = DECODERS.get();
+        decoder[0] = DecoderFactory.get().binaryDecoder(payload, 1, payload.length - 1, decoder[0]);
+        return fields.read(decoder[0]);
+    }
+
+    /**
+     * Decoder over the fields that follow the version byte, for readers that resolve
+     * an older schema and so cannot use the per-thread decoder
+     */
+    public static BinaryDecoder decoder(byte[] payload) {
+        return DecoderFactory.get().binaryDecoder(payload, 1, payload.length - 1, null);
+    }
+
+    /**
+     * Same bytes as {@link BinaryEncoder#writeString(String)}, but ASCII text is copied
+     * through the thread's scratch buffer instead of a new array per string
+     */
+    public static void writeString(BinaryEncoder encoder, String value) throws IOException {
+        int length = value.length();
+        byte[] bytes = WRITERS.get().scratch(length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                encoder.writeString(value);
+                return;
+            }
+            bytes[i] = (byte) c;
+        }
+        encoder.writeInt(length);
+        encoder.writeFixed(bytes, 0, length);
+    }
+
+    public static void writeOptionalString(BinaryEncoder encoder, String value) throws IOException {
+        if (writeBranch(encoder, value)) {
+            writeString(encoder, value);
+        }
+    }
+
+    public static void writeOptionalLong(BinaryEncoder encoder, Long value) throws IOException {
+        if (writeBranch(encoder, value)) {
+            encoder.writeLong(value);
+        }
+    }
+
+    public static void writeOptionalDouble(BinaryEncoder encoder, Double value) throws IOException {
+        if (writeBranch(encoder, value)) {
+            encoder.writeDouble(value);
+        }
+    }
+
+    public static void writeOptionalStrings(BinaryEncoder encoder, String[] values) throws IOException {
+        if (writeBranch(encoder, values)) {
+            encoder.writeArrayStart();
+            encoder.setItemCount(values.length);
+            for (String value : values) {
+                encoder.startItem();
+                writeString(encoder, value);
+            }
+            encoder.writeArrayEnd();
+        }
+    }
+
+    public static String readOptionalString(BinaryDecoder decoder) throws IOException {
+        return readBranch(decoder) ? decoder.readString() : null;
+    }
+
+    public static Long readOptionalLong(BinaryDecoder decoder) throws IOException {
+        return readBranch(decoder) ? decoder.readLong() : null;
+    }
+
+    public static Double readOptionalDouble(BinaryDecoder decoder) throws IOException {
+        return readBranch(decoder) ? decoder.readDouble() : null;
+    }
+
+    public static String[] readOptionalStrings(BinaryDecoder decoder) throws IOException {
+        if (!readBranch(decoder)) {
+            return null;
+        }
+        String[] values = new String[Math.toIntExact(decoder.readArrayStart())];
+        int size = 0;
+        for (long block = values.length; block != 0; block = decoder.arrayNext()) {
+            if (size + block > values.length) {
+                values = Arrays.copyOf(values, size + Math.toIntExact(block));
+            }
+            for (long i = 0; i < block; i++) {
+                values[size++] = decoder.readString();
+            }
+        }
+        return values;
+    }
+
+    public static Schema loadSchema(String path) {
+        try (InputStream in = AvroBinary.class.getResourceAsStream(path)) {
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load Avro schema " + path, e);
+        }
+    }
+
+    private static boolean writeBranch(BinaryEncoder encoder, Object value) throws IOException {
+        encoder.writeIndex(value == null ? 0 : 1);
+        return value != null;
+    }
+
+    private static boolean readBranch(BinaryDecoder decoder) throws IOException {
+        int branch = decoder.readIndex();
+        if (branch > 1) {
+            throw new IOException("Unexpected union branch " + branch);
+        }
+        return branch == 1;
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        private BinaryEncoder encoder;
+        private byte[] scratch = new byte[256];
+
+        private byte[] scratch(int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            return scratch;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.bi.config;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -8,12 +9,12 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
-
-import com.bi.events.CourseEvent;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 public class KafkaConfig {
@@ -21,17 +22,70 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${outbox.publisher.send-timeout-ms:30000}")
+    private int sendTimeoutMs;
+
+    @Value("${outbox.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${outbox.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${outbox.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${outbox.producer.transaction-id-prefix:}")
+    private String transactionIdPrefix;
+
+    @Value("${outbox.producer.instance-id:${HOSTNAME:}}")
+    private String instanceId;
+
+    /**
+     * Idempotent producer: broker-side retries never duplicate or reorder records of a
+     * partition. Delivery gives up before the publisher's send timeout, so a record the
+     * publisher marks as failed is not delivered late behind its retry. With a
+     * transaction id prefix each outbox batch is also published atomically; the prefix
+     * is made unique per instance, as replicas sharing transactional ids fence each other.
+     */
     @Bean
-    public ProducerFactory<String, CourseEvent> producerFactory() {
+    public ProducerFactory<String, byte[]> producerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(config);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, sendTimeoutMs / 2);
+        config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, sendTimeoutMs);
+        // Without broker metadata a send fails after this instead of blocking the worker for a minute
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, sendTimeoutMs / 2);
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(config);
+        if (!transactionIdPrefix.isBlank()) {
+            factory.setTransactionIdPrefix(transactionIdPrefix + instanceId() + "-");
+        }
+        return factory;
     }
 
     @Bean
-    public KafkaTemplate<String, CourseEvent> kafkaTemplate() {
+    public KafkaTemplate<String, byte[]> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
-}
\ No newline at end of file
+
+    /**
+     * The configured instance id or the host name, which is the pod name on Kubernetes
+     */
+    private String instanceId() {
+        if (!instanceId.isBlank()) {
+            return instanceId;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+}
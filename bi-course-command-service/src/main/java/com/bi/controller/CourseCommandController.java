@@ -3,17 +3,28 @@ package com.bi.controller;
 import com.bi.dto.command.CreateCourseCommand;
 import com.bi.dto.command.UpdateCourseCommand;
 import com.bi.service.CourseCommandService;
+import com.bi.service.CourseImportService;
+import com.bi.service.CourseImportService.ImportFormat;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 @RestController
 @RequestMapping("/courses")
 @Tag(name = "Course Commands", description = "Course write operations")
@@ -21,6 +32,9 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class CourseCommandController {
     private final CourseCommandService service;
+    private final CourseImportService importService;
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
 
     @PostMapping
     @Operation(summary = "Create a new course")
@@ -30,25 +44,66 @@ public class CourseCommandController {
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Update an existing course")
+    @Operation(summary = "Update an existing course, optionally only at the If-Match version")
     public ResponseEntity<Void> updateCourse(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateCourseCommand command) {
-        service.updateCourse(id, command);
-        return ResponseEntity.ok().build();
+        Long version = service.updateCourse(id, command, CourseETags.version(ifMatch));
+        return ResponseEntity.ok().eTag(CourseETags.of(version)).build();
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Soft delete a course by setting status to ARCHIVED")
-    public ResponseEntity<Void> deleteCourse(@PathVariable Long id) {
-        service.deleteCourse(id);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Void> deleteCourse(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = service.deleteCourse(id, CourseETags.version(ifMatch));
+        return ResponseEntity.ok().eTag(CourseETags.of(version)).build();
     }
 
     @PostMapping("/{id}/restore")
     @Operation(summary = "Restore an archived course by setting status to DRAFT")
-    public ResponseEntity<Void> restoreCourse(@PathVariable Long id) {
-        service.restoreCourse(id);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Void> restoreCourse(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = service.restoreCourse(id, CourseETags.version(ifMatch));
+        return ResponseEntity.ok().eTag(CourseETags.of(version)).build();
+    }
+
+    @PostMapping("/{id}/publish")
+    @Operation(summary = "Publish a draft course")
+    public ResponseEntity<Void> publishCourse(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = service.publishCourse(id, CourseETags.version(ifMatch));
+        return ResponseEntity.ok().eTag(CourseETags.of(version)).build();
+    }
+
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Bulk import courses from NDJSON or CSV, streaming one result per row")
+    public void importCourses(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImportFormat format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_NDJSON) ? ImportFormat.NDJSON : ImportFormat.CSV;
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (BufferedReader reader = request.getReader()) {
+            importService.importCourses(reader, format, response.getOutputStream());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        }
+    }
+
+    /**
+     * A concurrent update won between our read and our write
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Course was modified concurrently, reload and retry");
     }
-}
\ No newline at end of file
+}
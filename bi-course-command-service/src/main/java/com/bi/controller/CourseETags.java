@@ -0,0 +1,36 @@
+package com.bi.controller;
+
+/**
+ * Course versions as entity tags: {@code "<version>"}
+ */
+final class CourseETags {
+
+    private CourseETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @return the version an If-Match header asks for, null when there is no
+     *         precondition; a tag that is not a course version never matches
+     */
+    static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.bi.controller;
+
+import com.bi.dto.response.OutboxRequeueResult;
+import com.bi.entity.OutboxEvent.EventStatus;
+import com.bi.service.OutboxAdminService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/courses/admin/outbox")
+@Tag(name = "Course Command Admin", description = "Operations on the event outbox")
+@RequiredArgsConstructor
+public class OutboxAdminController {
+    private final OutboxAdminService adminService;
+
+    @PostMapping("/requeue")
+    @Operation(summary = "Send DEAD (or FAILED) outbox events back to PENDING for immediate publishing")
+    public ResponseEntity<OutboxRequeueResult> requeue(
+            @Parameter(description = "Status to requeue from, DEAD or FAILED") @RequestParam(defaultValue = "DEAD") EventStatus status,
+            @Parameter(description = "Only events of this type") @RequestParam(required = false) String eventType,
+            @Parameter(description = "Only events of this course") @RequestParam(required = false) Long aggregateId,
+            @Parameter(description = "Only events created at or after") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Only events created before") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @Parameter(description = "Maximum number of events, oldest first") @RequestParam(defaultValue = "1000") int limit) {
+        int requeued = adminService.requeue(status, eventType, aggregateId, createdFrom, createdTo, limit);
+        return ResponseEntity.ok(new OutboxRequeueResult(status.name(), requeued));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequeue(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -0,0 +1,38 @@
+package com.bi.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportRowResult {
+    private long line;
+    private ImportRowStatus status;
+    private Long courseId;
+    private List<String> errors;
+
+    public enum ImportRowStatus {
+        /**
+         * Course and its outbox event were written
+         */
+        CREATED,
+
+        /**
+         * Row could not be parsed or failed validation
+         */
+        INVALID,
+
+        /**
+         * Row was valid but the chunk containing it could not be written
+         */
+        FAILED
+    }
+}
@@ -0,0 +1,18 @@
+package com.bi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportSummary {
+    private long total;
+    private long created;
+    private long invalid;
+    private long failed;
+    private long durationMs;
+}
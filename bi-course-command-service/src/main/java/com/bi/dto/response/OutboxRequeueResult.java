@@ -0,0 +1,15 @@
+package com.bi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxRequeueResult {
+    private String fromStatus;
+    private int requeued;
+}
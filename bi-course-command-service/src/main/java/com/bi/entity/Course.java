@@ -6,19 +6,25 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * Updates write only the changed columns, and the version guards against lost updates
+ */
 @Entity
 @Table(name = "courses")
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Course {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courses_id_seq")
+    @SequenceGenerator(name = "courses_id_seq", sequenceName = "courses_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -50,6 +56,10 @@ public class Course {
     @Column(nullable = false)
     private LocalDateTime updatedAt= LocalDateTime.now();
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public enum CourseStatus {
         /**
          * Initial state when course is created
@@ -9,10 +9,13 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * Row of the day-partitioned outbox table. The primary key is (id, created_at) in the
+ * database; its partitions and the partial index on unpublished rows are managed by
+ * the migrations and {@link com.bi.service.OutboxPartitionManager}.
+ */
 @Entity
-@Table(name = "outbox_events", indexes = {
-    @Index(name = "idx_status_created", columnList = "status, createdAt")
-})
+@Table(name = "outbox_events")
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,7 +23,8 @@ import java.time.LocalDateTime;
 public class OutboxEvent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_id_seq")
+    @SequenceGenerator(name = "outbox_events_id_seq", sequenceName = "outbox_events_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 50)
@@ -29,8 +33,11 @@ public class OutboxEvent {
     @Column(nullable = false)
     private Long aggregateId;
     
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String payload;
+    @Column(nullable = false, columnDefinition = "BYTEA")
+    private byte[] payload;
+    
+    @Column(nullable = false, length = 100)
+    private String contentType;
     
     @Column(nullable = false, length = 20)
     @Enumerated(EnumType.STRING)
@@ -50,9 +57,15 @@ public class OutboxEvent {
     @Column(length = 500)
     private String errorMessage;
     
+    /** When a FAILED event is retried next, null in every other status */
+    @Column
+    private LocalDateTime nextAttemptAt;
+    
     public enum EventStatus {
         PENDING,
         PUBLISHED,
-        FAILED
+        FAILED,
+        /** Out of publish attempts, only retried when requeued */
+        DEAD
     }
 }
@@ -0,0 +1,41 @@
+package com.bi.events.codec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up codecs by content type. New events are written with the codec chosen by
+ * {@code course.events.content-type}; payloads without a content type are JSON.
+ */
+@Component
+public class CourseEventCodecs {
+    private final Map<String, CourseEventCodec> byContentType;
+    private final CourseEventCodec writer;
+
+    public CourseEventCodecs(List<CourseEventCodec> codecs,
+                             @Value("${course.events.content-type:" + JsonCourseEventCodec.CONTENT_TYPE + "}") String contentType) {
+        this.byContentType = codecs.stream()
+                .collect(Collectors.toUnmodifiableMap(CourseEventCodec::contentType, Function.identity()));
+        this.writer = forContentType(contentType);
+    }
+
+    public CourseEventCodec writer() {
+        return writer;
+    }
+
+    public CourseEventCodec forContentType(String contentType) {
+        if (contentType == null) {
+            return byContentType.get(JsonCourseEventCodec.CONTENT_TYPE);
+        }
+        CourseEventCodec codec = byContentType.get(contentType);
+        if (codec == null) {
+            throw new IllegalArgumentException("No course event codec for content type " + contentType);
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bi.events.codec;
+
+import com.bi.events.CourseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * The original JSON format, kept for events written before the binary format existed
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonCourseEventCodec implements CourseEventCodec {
+    public static final String CONTENT_TYPE = "application/json";
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(CourseEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to encode course event", e);
+        }
+    }
+
+    @Override
+    public CourseEvent decode(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, CourseEvent.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to decode course event", e);
+        }
+    }
+}
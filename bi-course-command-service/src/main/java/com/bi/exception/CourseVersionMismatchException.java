@@ -0,0 +1,15 @@
+package com.bi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The course was changed since the client read it (If-Match does not match its version)
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class CourseVersionMismatchException extends RuntimeException {
+	public CourseVersionMismatchException(Long id, Long expectedVersion, Long actualVersion) {
+		super("Course " + id + " is at version " + actualVersion + ", expected " + expectedVersion);
+	}
+
+}
@@ -1,9 +1,41 @@
 package com.bi.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import com.bi.entity.Course;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Move a course to {@code toStatus} in a single statement without loading it first.
+     * Bumps the version like an entity update would, and stamps {@code updatedAt} from the
+     * caller like {@code @UpdateTimestamp} does, so all timestamps come from the JVM clock.
+     * <p>
+     * Mapped as a query rather than {@code @Modifying} because {@code RETURNING *} hands back
+     * the updated row as the result, which an update count cannot carry. The returned course
+     * is only fresh if it was not already loaded in the persistence context, so call this
+     * before reading the course in the same transaction.
+     *
+     * @param expectedVersion version from If-Match, or null to skip the check
+     * @return the updated course, empty if it does not exist, is not in one of
+     *         {@code fromStatuses} or is not at {@code expectedVersion}
+     */
+    @Transactional
+    @Query(value = "UPDATE {h-schema}courses SET status = :toStatus, version = version + 1, updated_at = :updatedAt " +
+            "WHERE id = :id AND status IN (:fromStatuses) " +
+            "AND (CAST(:expectedVersion AS BIGINT) IS NULL OR version = :expectedVersion) " +
+            "RETURNING *", nativeQuery = true)
+    Optional<Course> transitionStatus(@Param("id") Long id,
+                                      @Param("fromStatuses") Collection<String> fromStatuses,
+                                      @Param("toStatus") String toStatus,
+                                      @Param("expectedVersion") Long expectedVersion,
+                                      @Param("updatedAt") LocalDateTime updatedAt);
+}
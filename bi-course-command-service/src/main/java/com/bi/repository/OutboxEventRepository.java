@@ -2,41 +2,180 @@ package com.bi.repository;
 
 import com.bi.entity.OutboxEvent;
 import com.bi.entity.OutboxEvent.EventStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
     
+    /** Lock timeout hint value that Hibernate renders as SKIP LOCKED */
+    String SKIP_LOCKED = "-2";
+    
     /**
-     * Find pending events ordered by creation time (oldest first)
-     * Limit to prevent overloading the publisher
+     * Take the transaction-scoped advisory lock of one outbox partition.
+     * Only one worker across all replicas can hold a partition at a time,
+     * which keeps events of the same aggregate in order.
      */
-    List<OutboxEvent> findTop100ByStatusOrderByCreatedAtAsc(EventStatus status);
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:namespace, :partition)", nativeQuery = true)
+    boolean tryLockPartition(@Param("namespace") int namespace, @Param("partition") int partition);
+    
+    /**
+     * Claim pending events of one partition ordered by creation time (oldest first)
+     * Rows locked by another transaction are skipped instead of waited for.
+     * Events of an aggregate with an earlier failed event are held back until
+     * that event is published, so they never overtake it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = SKIP_LOCKED))
+    @Query("SELECT o FROM OutboxEvent o WHERE o.status = 'PENDING' " +
+           "AND MOD(o.aggregateId, :partitions) = :partition " +
+           "AND NOT EXISTS (SELECT 1 FROM OutboxEvent f WHERE f.status = 'FAILED' " +
+           "AND f.aggregateId = o.aggregateId " +
+           "AND (f.createdAt < o.createdAt OR (f.createdAt = o.createdAt AND f.id < o.id))) " +
+           "ORDER BY o.createdAt ASC, o.id ASC")
+    List<OutboxEvent> claimPendingEvents(
+        @Param("partitions") int partitions,
+        @Param("partition") int partition,
+        Pageable pageable
+    );
     
     /**
-     * Find failed events that are eligible for retry
-     * (retry count less than max and created within retry window)
+     * Claim failed events of one partition whose next attempt is due, earliest first,
+     * from the index on next_attempt_at of FAILED rows. A failed event without a
+     * schedule, written before next_attempt_at existed, is due right away. Like
+     * pending events, an event waits for the earlier failed events of its aggregate.
      */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = SKIP_LOCKED))
     @Query("SELECT o FROM OutboxEvent o WHERE o.status = 'FAILED' " +
-           "AND o.retryCount < :maxRetries " +
-           "AND o.createdAt > :retryWindow " +
-           "ORDER BY o.createdAt ASC")
-    List<OutboxEvent> findFailedEventsForRetry(
+           "AND (o.nextAttemptAt IS NULL OR o.nextAttemptAt <= LOCAL DATETIME) " +
+           "AND MOD(o.aggregateId, :partitions) = :partition " +
+           "AND NOT EXISTS (SELECT 1 FROM OutboxEvent f WHERE f.status = 'FAILED' " +
+           "AND f.aggregateId = o.aggregateId " +
+           "AND (f.createdAt < o.createdAt OR (f.createdAt = o.createdAt AND f.id < o.id))) " +
+           "ORDER BY o.nextAttemptAt ASC, o.id ASC")
+    List<OutboxEvent> claimDueRetries(
+        @Param("partitions") int partitions,
+        @Param("partition") int partition,
+        Pageable pageable
+    );
+    
+    /**
+     * Mark a whole batch of events as published in a single statement
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent o SET o.status = :status, o.publishedAt = :publishedAt, o.errorMessage = NULL, " +
+           "o.nextAttemptAt = NULL WHERE o.id IN :ids")
+    int markPublished(
+        @Param("ids") Collection<Long> ids,
+        @Param("publishedAt") LocalDateTime publishedAt,
+        @Param("status") EventStatus status
+    );
+    
+    /**
+     * Record a failed attempt for a group of events that failed with the same error in a
+     * single statement. Each event is scheduled for its next attempt after
+     * min(maxBackoff, baseBackoff * 2^attempts) scaled by a random factor in [0.5, 1), so
+     * events that failed together do not all come back at once; an event that used up
+     * its attempts becomes DEAD instead.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE {h-schema}outbox_events SET retry_count = retry_count + 1, error_message = :errorMessage, " +
+                   "status = CASE WHEN retry_count + 1 >= :maxRetries THEN 'DEAD' ELSE 'FAILED' END, " +
+                   "next_attempt_at = CASE WHEN retry_count + 1 >= :maxRetries THEN NULL " +
+                   "ELSE LOCALTIMESTAMP + make_interval(secs => " +
+                   "LEAST(:maxBackoffMs, :baseBackoffMs * power(2, retry_count)) / 1000.0 * (0.5 + random() / 2)) END " +
+                   "WHERE id IN :ids", nativeQuery = true)
+    int markFailed(
+        @Param("ids") Collection<Long> ids,
+        @Param("errorMessage") String errorMessage,
         @Param("maxRetries") int maxRetries,
-        @Param("retryWindow") LocalDateTime retryWindow
+        @Param("baseBackoffMs") long baseBackoffMs,
+        @Param("maxBackoffMs") long maxBackoffMs
     );
     
     /**
-     * Delete old published events (for cleanup)
+     * Send matching events of one status (DEAD, or FAILED to skip their backoff) back to
+     * PENDING with a fresh attempt count, oldest first and at most limit of them.
+     * Null filters match everything.
      */
     @Modifying
+    @Transactional
+    @Query(value = "UPDATE {h-schema}outbox_events SET status = 'PENDING', retry_count = 0, next_attempt_at = NULL, " +
+                   "error_message = NULL WHERE (id, created_at) IN (" +
+                   "SELECT id, created_at FROM {h-schema}outbox_events WHERE status = :status " +
+                   "AND (CAST(:eventType AS VARCHAR) IS NULL OR event_type = :eventType) " +
+                   "AND (CAST(:aggregateId AS BIGINT) IS NULL OR aggregate_id = :aggregateId) " +
+                   "AND (CAST(:createdFrom AS TIMESTAMP) IS NULL OR created_at >= :createdFrom) " +
+                   "AND (CAST(:createdTo AS TIMESTAMP) IS NULL OR created_at < :createdTo) " +
+                   "ORDER BY created_at, id LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int requeue(
+        @Param("status") String status,
+        @Param("eventType") String eventType,
+        @Param("aggregateId") Long aggregateId,
+        @Param("createdFrom") LocalDateTime createdFrom,
+        @Param("createdTo") LocalDateTime createdTo,
+        @Param("limit") int limit
+    );
+    
+    /**
+     * Size and oldest creation time of the unpublished events per status,
+     * read from the partial index on unpublished rows
+     */
+    @Query(value = "SELECT status AS status, count(*) AS events, min(created_at) AS oldestCreatedAt " +
+                   "FROM {h-schema}outbox_events WHERE status IN ('PENDING', 'FAILED', 'DEAD') GROUP BY status", nativeQuery = true)
+    List<Backlog> findBacklog();
+    
+    interface Backlog {
+        String getStatus();
+        long getEvents();
+        LocalDateTime getOldestCreatedAt();
+    }
+    
+    /**
+     * Whether outbox_events is the day-partitioned table created by the V6 migration
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table " +
+                   "WHERE partrelid = to_regclass('{h-schema}outbox_events'))", nativeQuery = true)
+    boolean isPartitioned();
+    
+    /**
+     * Delete old published events, the retention of an outbox table that is not partitioned
+     */
+    @Modifying
+    @Transactional
     @Query("DELETE FROM OutboxEvent o WHERE o.status = 'PUBLISHED' AND o.publishedAt < :threshold")
     int deleteOldPublishedEvents(@Param("threshold") LocalDateTime threshold);
+    
+    /**
+     * Create the missing daily partitions of [startDay, startDay + days)
+     * @return number of partitions created
+     */
+    @Transactional
+    @Query(value = "SELECT {h-schema}outbox_ensure_partitions(:startDay, :days)", nativeQuery = true)
+    int ensurePartitions(@Param("startDay") LocalDate startDay, @Param("days") int days);
+    
+    /**
+     * Drop the daily partitions that end on or before cutoffDay and hold only published events
+     * @return number of partitions dropped
+     */
+    @Transactional
+    @Query(value = "SELECT {h-schema}outbox_drop_partitions(:cutoffDay)", nativeQuery = true)
+    int dropPartitions(@Param("cutoffDay") LocalDate cutoffDay);
 }
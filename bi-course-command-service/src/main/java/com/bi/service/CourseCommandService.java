@@ -8,11 +8,12 @@ import com.bi.entity.OutboxEvent;
 import com.bi.entity.OutboxEvent.EventStatus;
 import com.bi.events.CourseEvent;
 import com.bi.events.CourseEventType;
+import com.bi.events.codec.CourseEventCodec;
+import com.bi.events.codec.CourseEventCodecs;
+import com.bi.exception.CourseVersionMismatchException;
 import com.bi.exception.ResourceNotFoundException;
 import com.bi.repository.CourseRepository;
 import com.bi.repository.OutboxEventRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,13 +21,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CourseCommandService {
     private final CourseRepository repository;
     private final OutboxEventRepository outboxRepository;
-    private final ObjectMapper objectMapper;
+    private final OutboxNotifier outboxNotifier;
+    private final CourseEventCodecs eventCodecs;
     
     private static final String TOPIC = "course-events";
 
@@ -34,28 +40,40 @@ public class CourseCommandService {
     public Long createCourse(CreateCourseCommand command) {
         log.info("Creating new course: {}", command);
         
-        Course course = Course.builder()
-                .name(command.getName())
-                .description(command.getDescription())
-                .price(command.getPrice())
-                .tags(command.getTags())
-                .instructorId(command.getInstructorId())
-                .status(CourseStatus.DRAFT)
-                .build();
-
-        Course saved = repository.save(course);
+        Course saved = repository.save(toCourse(command));
         
         publishEvent(CourseEventType.COURSE_CREATED, saved);
         
         return saved.getId();
     }
 
+    /**
+     * Create a chunk of courses in one transaction. Courses and their outbox events
+     * are written as JDBC batches and the publisher is notified once for the chunk.
+     */
     @Transactional
-    public void updateCourse(Long id, UpdateCourseCommand command) {
+    public List<Long> createCourses(List<CreateCourseCommand> commands) {
+        log.debug("Creating {} courses", commands.size());
+        
+        List<Course> saved = repository.saveAll(commands.stream().map(this::toCourse).toList());
+        
+        outboxRepository.saveAll(saved.stream()
+                .map(course -> toOutboxEvent(CourseEventType.COURSE_CREATED, course))
+                .toList());
+        outboxNotifier.notifyPending();
+        
+        return saved.stream().map(Course::getId).toList();
+    }
+
+    /**
+     * @param expectedVersion version from If-Match, or null to update unconditionally
+     * @return the new version
+     */
+    @Transactional
+    public Long updateCourse(Long id, UpdateCourseCommand command, Long expectedVersion) {
         log.info("Updating course: {}", id);
         
-        Course course = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
+        Course course = currentCourse(id, expectedVersion);
 
         if (command.getName() != null) {
             course.setName(command.getName());
@@ -73,39 +91,95 @@ public class CourseCommandService {
             course.setStatus(CourseStatus.valueOf(command.getStatus()));
         }
 
-        Course updated = repository.save(course);
-        publishEvent(CourseEventType.COURSE_UPDATED, updated);
+        // Writes only the changed columns and bumps the version the event carries
+        repository.flush();
+        publishEvent(CourseEventType.COURSE_UPDATED, course);
+        return course.getVersion();
     }
 
+    /**
+     * Archive in one conditional UPDATE. Deleting an archived course changes nothing.
+     *
+     * @return the new version
+     */
     @Transactional
-    public void deleteCourse(Long id) {
+    public Long deleteCourse(Long id, Long expectedVersion) {
         log.info("Soft deleting course: {}", id);
         
-        Course course = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
-
-        course.setStatus(CourseStatus.ARCHIVED);
-        Course updated = repository.save(course);
-        publishEvent(CourseEventType.COURSE_UPDATED, updated);
+        Optional<Course> archived = repository.transitionStatus(id,
+                List.of(CourseStatus.DRAFT.name(), CourseStatus.PUBLISHED.name()),
+                CourseStatus.ARCHIVED.name(), expectedVersion, LocalDateTime.now());
+        if (archived.isEmpty()) {
+            return currentCourse(id, expectedVersion).getVersion();
+        }
+        publishEvent(CourseEventType.COURSE_UPDATED, archived.get());
+        return archived.get().getVersion();
     }
 
+    /**
+     * @return the new version
+     */
     @Transactional
-    public void restoreCourse(Long id) {
+    public Long restoreCourse(Long id, Long expectedVersion) {
         log.info("Restoring archived course: {}", id);
         
+        // Restore to DRAFT state for review
+        Course restored = repository.transitionStatus(id, List.of(CourseStatus.ARCHIVED.name()),
+                        CourseStatus.DRAFT.name(), expectedVersion, LocalDateTime.now())
+                .orElseThrow(() -> transitionRejected(id, expectedVersion, "Can only restore archived courses"));
+        publishEvent(CourseEventType.COURSE_UPDATED, restored);
+        return restored.getVersion();
+    }
+
+    /**
+     * @return the new version
+     */
+    @Transactional
+    public Long publishCourse(Long id, Long expectedVersion) {
+        log.info("Publishing course: {}", id);
+        
+        Course published = repository.transitionStatus(id, List.of(CourseStatus.DRAFT.name()),
+                        CourseStatus.PUBLISHED.name(), expectedVersion, LocalDateTime.now())
+                .orElseThrow(() -> transitionRejected(id, expectedVersion, "Can only publish draft courses"));
+        publishEvent(CourseEventType.COURSE_UPDATED, published);
+        return published.getVersion();
+    }
+
+    private Course currentCourse(Long id, Long expectedVersion) {
         Course course = repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
-                
-        if (course.getStatus() != CourseStatus.ARCHIVED) {
-            throw new IllegalStateException("Can only restore archived courses. Current status: " + course.getStatus());
+        if (expectedVersion != null && !expectedVersion.equals(course.getVersion())) {
+            throw new CourseVersionMismatchException(id, expectedVersion, course.getVersion());
         }
+        return course;
+    }
 
-        course.setStatus(CourseStatus.DRAFT);  // Restore to DRAFT state for review
-        Course updated = repository.save(course);
-        publishEvent(CourseEventType.COURSE_UPDATED, updated);
+    /**
+     * Explain why a conditional status UPDATE matched no row. Only runs on the failure path.
+     */
+    private RuntimeException transitionRejected(Long id, Long expectedVersion, String message) {
+        Course course = currentCourse(id, expectedVersion);
+        return new IllegalStateException(message + ". Current status: " + course.getStatus());
+    }
+
+    private Course toCourse(CreateCourseCommand command) {
+        return Course.builder()
+                .name(command.getName())
+                .description(command.getDescription())
+                .price(command.getPrice())
+                .tags(command.getTags())
+                .instructorId(command.getInstructorId())
+                .status(CourseStatus.DRAFT)
+                .build();
     }
 
     private void publishEvent(CourseEventType eventType, Course course) {
+        outboxRepository.save(toOutboxEvent(eventType, course));
+        outboxNotifier.notifyPending();
+        log.debug("Saved event to outbox: {}", eventType);
+    }
+
+    private OutboxEvent toOutboxEvent(CourseEventType eventType, Course course) {
         CourseEvent event = new CourseEvent(
             eventType.name(),
             course.getId(),
@@ -115,25 +189,17 @@ public class CourseCommandService {
             course.getTags(),
             course.getInstructorId(),
             course.getStatus().name(),
-            System.currentTimeMillis()
+            System.currentTimeMillis(),
+            course.getVersion()
         );
 
-        try {
-            String payload = objectMapper.writeValueAsString(event);
-            
-            OutboxEvent outboxEvent = OutboxEvent.builder()
-                    .eventType(eventType.name())
-                    .aggregateId(course.getId())
-                    .payload(payload)
-                    .status(EventStatus.PENDING)
-                    .build();
-            
-            outboxRepository.save(outboxEvent);
-            log.debug("Saved event to outbox: {}", eventType);
-            
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize event payload: {}", e.getMessage());
-            throw new RuntimeException("Failed to save event to outbox", e);
-        }
+        CourseEventCodec codec = eventCodecs.writer();
+        return OutboxEvent.builder()
+                .eventType(eventType.name())
+                .aggregateId(course.getId())
+                .payload(codec.encode(event))
+                .contentType(codec.contentType())
+                .status(EventStatus.PENDING)
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.bi.service;
+
+import com.bi.dto.command.CreateCourseCommand;
+import com.bi.dto.response.ImportRowResult;
+import com.bi.dto.response.ImportRowResult.ImportRowStatus;
+import com.bi.dto.response.ImportSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams a bulk course upload: rows are parsed and validated one at a time, valid
+ * rows are written in chunks through {@link CourseCommandService#createCourses}, and
+ * one NDJSON result per row is flushed after every chunk, followed by a summary line.
+ * A chunk that fails is written again row by row, so only the failing rows are reported.
+ * Only the current chunk is held in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseImportService {
+    private final CourseCommandService commandService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    private static final String TAG_SEPARATOR = ";";
+
+    @Value("${course.import.chunk-size:500}")
+    private int chunkSize;
+
+    public enum ImportFormat {
+        NDJSON,
+        CSV
+    }
+
+    public ImportSummary importCourses(BufferedReader reader, ImportFormat format, OutputStream out) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        ImportSummary summary = new ImportSummary();
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        List<CreateCourseCommand> chunk = new ArrayList<>(chunkSize);
+        Map<String, Integer> csvColumns = null;
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == ImportFormat.CSV && csvColumns == null) {
+                csvColumns = parseCsvHeader(line);
+                continue;
+            }
+
+            summary.setTotal(summary.getTotal() + 1);
+            try {
+                CreateCourseCommand command = format == ImportFormat.CSV
+                        ? parseCsvRow(line, csvColumns)
+                        : objectMapper.readValue(line, CreateCourseCommand.class);
+                Set<ConstraintViolation<CreateCourseCommand>> violations = validator.validate(command);
+                if (violations.isEmpty()) {
+                    chunk.add(command);
+                    chunkLines.add(lineNumber);
+                } else {
+                    writeResult(out, summary, invalid(lineNumber, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .toList()));
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                writeResult(out, summary, invalid(lineNumber, List.of(e.getMessage())));
+            }
+
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, chunkLines, out, summary);
+            }
+        }
+        writeChunk(chunk, chunkLines, out, summary);
+
+        summary.setDurationMs(System.currentTimeMillis() - startedAt);
+        out.write(objectMapper.writeValueAsBytes(summary));
+        out.write('\n');
+        out.flush();
+        log.info("Bulk import finished: {}", summary);
+        return summary;
+    }
+
+    private void writeChunk(List<CreateCourseCommand> chunk, List<Long> chunkLines,
+                            OutputStream out, ImportSummary summary) throws IOException {
+        if (chunk.isEmpty()) {
+            out.flush();
+            return;
+        }
+        try {
+            List<Long> ids = commandService.createCourses(chunk);
+            for (int i = 0; i < ids.size(); i++) {
+                writeResult(out, summary, ImportRowResult.builder()
+                        .line(chunkLines.get(i))
+                        .status(ImportRowStatus.CREATED)
+                        .courseId(ids.get(i))
+                        .build());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to import chunk of {} courses, retrying row by row: {}", chunk.size(), e.getMessage());
+            writeRows(chunk, chunkLines, out, summary);
+        }
+        chunk.clear();
+        chunkLines.clear();
+        out.flush();
+        log.debug("Bulk import progress: {}", summary);
+    }
+
+    /**
+     * Write each row of a failed chunk in its own transaction, so one bad row fails
+     * alone instead of taking the whole chunk with it
+     */
+    private void writeRows(List<CreateCourseCommand> chunk, List<Long> chunkLines,
+                           OutputStream out, ImportSummary summary) throws IOException {
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRowResult.ImportRowResultBuilder result = ImportRowResult.builder().line(chunkLines.get(i));
+            try {
+                Long courseId = commandService.createCourse(chunk.get(i));
+                result.status(ImportRowStatus.CREATED).courseId(courseId);
+            } catch (RuntimeException e) {
+                log.error("Failed to import line {}: {}", chunkLines.get(i), e.getMessage());
+                result.status(ImportRowStatus.FAILED)
+                        .errors(List.of(String.valueOf(e.getMessage())));
+            }
+            writeResult(out, summary, result.build());
+        }
+    }
+
+    private void writeResult(OutputStream out, ImportSummary summary, ImportRowResult result) throws IOException {
+        switch (result.getStatus()) {
+            case CREATED -> summary.setCreated(summary.getCreated() + 1);
+            case INVALID -> summary.setInvalid(summary.getInvalid() + 1);
+            case FAILED -> summary.setFailed(summary.getFailed() + 1);
+        }
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+
+    private static ImportRowResult invalid(long line, List<String> errors) {
+        return ImportRowResult.builder()
+                .line(line)
+                .status(ImportRowStatus.INVALID)
+                .errors(errors)
+                .build();
+    }
+
+    private static Map<String, Integer> parseCsvHeader(String line) {
+        List<String> header = splitCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "price", "instructorid")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static CreateCourseCommand parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsvLine(line);
+        String tags = column(values, columns, "tags");
+        String price = column(values, columns, "price");
+        String instructorId = column(values, columns, "instructorid");
+        try {
+            return CreateCourseCommand.builder()
+                    .name(column(values, columns, "name"))
+                    .description(column(values, columns, "description"))
+                    .price(price == null ? null : Double.valueOf(price))
+                    .tags(tags == null ? null : Arrays.stream(tags.split(TAG_SEPARATOR))
+                            .map(String::trim)
+                            .filter(tag -> !tag.isEmpty())
+                            .toArray(String[]::new))
+                    .instructorId(instructorId == null ? null : Long.valueOf(instructorId))
+                    .build();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Split one CSV record (RFC 4180 quoting, no embedded line breaks)
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
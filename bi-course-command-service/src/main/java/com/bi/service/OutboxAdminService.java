@@ -0,0 +1,42 @@
+package com.bi.service;
+
+import com.bi.entity.OutboxEvent.EventStatus;
+import com.bi.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxAdminService {
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxNotifier outboxNotifier;
+
+    @Value("${outbox.requeue.max-limit:10000}")
+    private int maxLimit;
+
+    /**
+     * Move DEAD events (or FAILED ones, skipping their backoff) back to PENDING in one
+     * statement. The publisher is notified on commit and drains them like new events.
+     */
+    @Transactional
+    public int requeue(EventStatus fromStatus, String eventType, Long aggregateId,
+                       LocalDateTime createdFrom, LocalDateTime createdTo, int limit) {
+        if (fromStatus != EventStatus.DEAD && fromStatus != EventStatus.FAILED) {
+            throw new IllegalArgumentException("Only DEAD or FAILED events can be requeued");
+        }
+        int requeued = outboxRepository.requeue(fromStatus.name(), eventType, aggregateId,
+                createdFrom, createdTo, Math.max(1, Math.min(limit, maxLimit)));
+        if (requeued > 0) {
+            outboxNotifier.notifyPending();
+            log.info("Requeued {} {} outbox events", requeued, fromStatus);
+        }
+        return requeued;
+    }
+}
@@ -1,123 +1,117 @@
 package com.bi.service;
 
-import com.bi.entity.OutboxEvent;
-import com.bi.entity.OutboxEvent.EventStatus;
-import com.bi.events.CourseEvent;
-import com.bi.repository.OutboxEventRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OutboxEventPublisher {
     
-    private final OutboxEventRepository outboxRepository;
-    private final KafkaTemplate<String, CourseEvent> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final OutboxPartitionWorker partitionWorker;
     
-    private static final String TOPIC = "course-events";
-    private static final int MAX_RETRIES = 3;
-    private static final int RETRY_WINDOW_HOURS = 24;
+    @Value("${outbox.publisher.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${outbox.publisher.worker-threads:4}")
+    private int workerThreads;
+    
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    
+    private ExecutorService workers;
+    
+    @PostConstruct
+    void startWorkers() {
+        workers = Executors.newFixedThreadPool(workerThreads, new CustomizableThreadFactory("outbox-worker-"));
+    }
+    
+    @PreDestroy
+    void stopWorkers() {
+        workers.shutdown();
+    }
     
     /**
-     * Poll and publish pending events every 5 seconds
+     * Safety-net poll for pending events. Normally the outbox is drained as soon as
+     * {@link OutboxNotificationListener} receives a commit notification.
      */
-    @Scheduled(fixedDelay = 5000, initialDelay = 10000)
+    @Scheduled(fixedDelayString = "${outbox.publisher.poll-interval-ms:30000}", initialDelay = 10000)
     public void publishPendingEvents() {
         log.debug("Polling for pending outbox events...");
-        
-        List<OutboxEvent> pendingEvents = outboxRepository
-                .findTop100ByStatusOrderByCreatedAtAsc(EventStatus.PENDING);
-        
-        if (!pendingEvents.isEmpty()) {
-            log.info("Found {} pending events to publish", pendingEvents.size());
-            pendingEvents.forEach(this::publishEvent);
-        }
+        drainPendingEvents();
     }
     
     /**
-     * Retry failed events every 1 minute
+     * Publish pending events of all partitions until the outbox is empty.
+     * Concurrent callers never drain in parallel: a request that arrives while a drain
+     * is running makes the running drain go around once more instead.
      */
-    @Scheduled(fixedDelay = 60000, initialDelay = 30000)
-    public void retryFailedEvents() {
-        log.debug("Checking for failed events to retry...");
-        
-        LocalDateTime retryWindow = LocalDateTime.now().minusHours(RETRY_WINDOW_HOURS);
-        List<OutboxEvent> failedEvents = outboxRepository
-                .findFailedEventsForRetry(MAX_RETRIES, retryWindow);
-        
-        if (!failedEvents.isEmpty()) {
-            log.info("Found {} failed events to retry", failedEvents.size());
-            failedEvents.forEach(this::publishEvent);
+    public void drainPendingEvents() {
+        drainRequested.set(true);
+        while (drainRequested.get() && draining.compareAndSet(false, true)) {
+            try {
+                drainRequested.set(false);
+                forEachPartition(partition -> partitionWorker.publishPending(partition, batchSize), true);
+            } finally {
+                draining.set(false);
+            }
         }
     }
     
     /**
-     * Cleanup old published events every hour
+     * Retry failed events whose backoff has elapsed. Each tick claims at most one batch
+     * per partition, so during a broker outage the work per tick stays bounded however
+     * many events are failing.
      */
-    @Scheduled(cron = "0 0 * * * *")
-    @Transactional
-    public void cleanupOldEvents() {
-        log.debug("Cleaning up old published events...");
-        
-        LocalDateTime threshold = LocalDateTime.now().minusDays(7);
-        int deleted = outboxRepository.deleteOldPublishedEvents(threshold);
-        
-        if (deleted > 0) {
-            log.info("Deleted {} old published events", deleted);
-        }
+    @Scheduled(fixedDelayString = "${outbox.retry.poll-interval-ms:5000}", initialDelay = 30000)
+    public void retryFailedEvents() {
+        log.debug("Checking for failed events due for retry...");
+        forEachPartition(partition -> partitionWorker.retryFailed(partition, batchSize), false);
     }
     
-    @Transactional
-    protected void publishEvent(OutboxEvent outboxEvent) {
+    /**
+     * Run one task per partition on the worker pool and wait for all of them.
+     * With untilEmpty each task keeps claiming batches while they come back full.
+     */
+    private void forEachPartition(IntUnaryOperator publishBatch, boolean untilEmpty) {
+        List<Callable<Integer>> tasks = IntStream.range(0, partitionWorker.getPartitions())
+                .mapToObj(partition -> (Callable<Integer>) () -> {
+                    int total = 0;
+                    int claimed;
+                    do {
+                        claimed = publishBatch.applyAsInt(partition);
+                        total += claimed;
+                    } while (untilEmpty && claimed == batchSize);
+                    return total;
+                })
+                .toList();
+        
         try {
-            // Deserialize payload
-            CourseEvent event = objectMapper.readValue(
-                    outboxEvent.getPayload(), 
-                    CourseEvent.class
-            );
-            
-            // Publish to Kafka synchronously to ensure delivery before marking as published
-            kafkaTemplate.send(TOPIC, event.getCourseId().toString(), event)
-                    .get(); // Block and wait for result
-            
-            // Update status to PUBLISHED
-            outboxEvent.setStatus(EventStatus.PUBLISHED);
-            outboxEvent.setPublishedAt(LocalDateTime.now());
-            outboxEvent.setErrorMessage(null);
-            outboxRepository.save(outboxEvent);
-            
-            log.info("Successfully published event: {} for course: {}", 
-                    outboxEvent.getEventType(), event.getCourseId());
-            
-        } catch (Exception e) {
-            log.error("Failed to publish event {}: {}", 
-                    outboxEvent.getId(), e.getMessage());
-            
-            // Update status to FAILED and increment retry count
-            outboxEvent.setStatus(EventStatus.FAILED);
-            outboxEvent.setRetryCount(outboxEvent.getRetryCount() + 1);
-            outboxEvent.setErrorMessage(
-                    e.getMessage() != null && e.getMessage().length() > 500 
-                    ? e.getMessage().substring(0, 500) 
-                    : e.getMessage()
-            );
-            outboxRepository.save(outboxEvent);
-            
-            // If max retries exceeded, log error for manual intervention
-            if (outboxEvent.getRetryCount() >= MAX_RETRIES) {
-                log.error("Event {} exceeded max retries ({}). Manual intervention required.", 
-                        outboxEvent.getId(), MAX_RETRIES);
+            for (Future<Integer> result : workers.invokeAll(tasks)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    log.error("Outbox partition worker failed: {}", e.getCause().getMessage());
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 }
@@ -0,0 +1,136 @@
+package com.bi.service;
+
+import com.bi.entity.OutboxEvent;
+import com.bi.entity.OutboxEvent.EventStatus;
+import com.bi.repository.OutboxEventRepository;
+import com.bi.repository.OutboxEventRepository.Backlog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Outbox meters. The backlog gauges are refreshed on a schedule rather than queried per
+ * scrape, so scrapes from several Prometheus servers do not add database load; the age of
+ * the oldest unpublished event is computed at scrape time and keeps growing while the
+ * relay is stuck.
+ */
+@Component
+@Slf4j
+public class OutboxMetrics {
+    private final OutboxEventRepository outboxRepository;
+    private final Map<EventStatus, AtomicLong> backlog = new EnumMap<>(EventStatus.class);
+    private final AtomicReference<LocalDateTime> oldestUnpublished = new AtomicReference<>();
+
+    private final Timer batchTimer;
+    private final Timer transactionalBatchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter published;
+    private final Counter failed;
+    private final Counter dead;
+    private final Timer publishDelay;
+
+    public OutboxMetrics(OutboxEventRepository outboxRepository, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        for (EventStatus status : new EventStatus[] {EventStatus.PENDING, EventStatus.FAILED, EventStatus.DEAD}) {
+            AtomicLong events = new AtomicLong();
+            backlog.put(status, events);
+            Gauge.builder("outbox.backlog.events", events, AtomicLong::get)
+                    .description("Unpublished outbox events")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        TimeGauge.builder("outbox.backlog.oldest.age", oldestUnpublished, TimeUnit.MILLISECONDS, oldest -> {
+                    LocalDateTime createdAt = oldest.get();
+                    return createdAt == null ? 0 : Duration.between(createdAt, LocalDateTime.now()).toMillis();
+                })
+                .description("Age of the oldest pending or failed outbox event, 0 when there is none")
+                .register(meterRegistry);
+
+        this.batchTimer = batchTimer(meterRegistry, "async");
+        this.transactionalBatchTimer = batchTimer(meterRegistry, "transactional");
+        this.batchSize = DistributionSummary.builder("outbox.publish.batch.size")
+                .description("Events per published batch")
+                .register(meterRegistry);
+        this.published = eventCounter(meterRegistry, "published");
+        this.failed = eventCounter(meterRegistry, "failed");
+        this.dead = eventCounter(meterRegistry, "dead");
+        this.publishDelay = Timer.builder("outbox.publish.delay")
+                .description("Time from writing an outbox event to its acknowledgement by Kafka")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.metrics.backlog-refresh-ms:10000}", initialDelay = 5000)
+    public void refreshBacklog() {
+        try {
+            Map<EventStatus, Long> counts = new EnumMap<>(EventStatus.class);
+            LocalDateTime oldest = null;
+            for (Backlog row : outboxRepository.findBacklog()) {
+                EventStatus status = EventStatus.valueOf(row.getStatus());
+                counts.put(status, row.getEvents());
+                if (status != EventStatus.DEAD && (oldest == null || row.getOldestCreatedAt().isBefore(oldest))) {
+                    oldest = row.getOldestCreatedAt();
+                }
+            }
+            backlog.forEach((status, events) -> events.set(counts.getOrDefault(status, 0L)));
+            oldestUnpublished.set(oldest);
+        } catch (Exception e) {
+            log.warn("Failed to refresh outbox backlog metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param startedNanos {@link System#nanoTime()} when the batch was claimed
+     */
+    void recordBatch(long startedNanos, boolean transactional, int size) {
+        (transactional ? transactionalBatchTimer : batchTimer)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        batchSize.record(size);
+    }
+
+    void recordPublished(Collection<OutboxEvent> events, LocalDateTime publishedAt) {
+        published.increment(events.size());
+        events.forEach(event -> publishDelay.record(Duration.between(event.getCreatedAt(), publishedAt)));
+    }
+
+    /**
+     * @param deadEvents the failed events that ran out of attempts
+     */
+    void recordFailed(int events, int deadEvents) {
+        failed.increment(events);
+        dead.increment(deadEvents);
+    }
+
+    private static Timer batchTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("outbox.publish.batch")
+                .description("Time to send a claimed batch and wait for all acknowledgements")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(meterRegistry);
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("outbox.events")
+                .description("Outbox events by publish outcome, a failed event is counted once per attempt "
+                        + "and once more as dead when it runs out of attempts")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
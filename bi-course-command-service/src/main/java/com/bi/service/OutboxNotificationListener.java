@@ -0,0 +1,117 @@
+package com.bi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens for outbox notifications on a dedicated connection (outside the pool)
+ * and drains the outbox as soon as a writing transaction commits.
+ * The scheduled poll in {@link OutboxEventPublisher} remains as a safety net.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxNotificationListener implements SmartLifecycle {
+
+    private final OutboxEventPublisher publisher;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${outbox.notify.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.notify.channel:outbox_events}")
+    private String channel;
+
+    @Value("${outbox.notify.wait-timeout-ms:1000}")
+    private int waitTimeoutMs;
+
+    @Value("${outbox.notify.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Outbox notifications disabled, relying on polling only");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "outbox-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for outbox notifications on channel: {}", channel);
+
+                // Catch up on anything committed while we were not listening
+                publisher.drainPendingEvents();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(waitTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        publisher.drainPendingEvents();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Outbox listener connection lost: {}. Reconnecting in {} ms", 
+                        e.getMessage(), reconnectDelayMs);
+                sleepBeforeReconnect();
+            } catch (RuntimeException e) {
+                log.error("Outbox drain failed: {}", e.getMessage());
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
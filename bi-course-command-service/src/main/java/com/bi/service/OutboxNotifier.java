@@ -0,0 +1,38 @@
+package com.bi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signals the outbox publisher that new events were written.
+ * Postgres delivers the notification only when the surrounding transaction commits
+ * and folds identical notifications of one transaction into a single one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxNotifier {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${outbox.notify.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.notify.channel:outbox_events}")
+    private String channel;
+
+    public void notifyPending() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.execute("SELECT pg_notify(?, '')", (PreparedStatementCallback<Boolean>) ps -> {
+            ps.setString(1, channel);
+            return ps.execute();
+        });
+        log.debug("Notified outbox channel: {}", channel);
+    }
+}
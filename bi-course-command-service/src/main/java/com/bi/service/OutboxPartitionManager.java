@@ -0,0 +1,77 @@
+package com.bi.service;
+
+import com.bi.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Maintains the daily partitions of {@code outbox_events}: creates them a few days
+ * ahead, so inserts never lack a partition, and enforces retention by dropping
+ * partitions older than the retention period, which replaces deleting published
+ * rows. Partitions that still hold unpublished events are kept. Until the table has
+ * been migrated to partitions, published rows past the retention period are deleted.
+ * Dates follow the service clock, the same one that stamps {@code created_at}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxPartitionManager {
+
+    private final OutboxEventRepository outboxRepository;
+
+    @Value("${outbox.partitions.premake-days:7}")
+    private int premakeDays;
+
+    @Value("${outbox.partitions.retention-days:7}")
+    private int retentionDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${outbox.partitions.maintenance-cron:0 0 * * * *}")
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        try {
+            if (!outboxRepository.isPartitioned()) {
+                deleteExpiredEvents();
+                return;
+            }
+        } catch (Exception e) {
+            log.error("Failed to maintain the outbox table: {}", e.getMessage());
+            return;
+        }
+        try {
+            int created = outboxRepository.ensurePartitions(today, premakeDays + 1);
+            if (created > 0) {
+                log.info("Created {} outbox partitions up to {}", created, today.plusDays(premakeDays));
+            }
+        } catch (Exception e) {
+            log.error("Failed to create outbox partitions: {}", e.getMessage());
+        }
+        try {
+            int dropped = outboxRepository.dropPartitions(today.minusDays(retentionDays));
+            if (dropped > 0) {
+                log.info("Dropped {} outbox partitions older than {} days", dropped, retentionDays);
+            }
+        } catch (Exception e) {
+            log.error("Failed to drop expired outbox partitions: {}", e.getMessage());
+        }
+    }
+
+    private void deleteExpiredEvents() {
+        int deleted = outboxRepository.deleteOldPublishedEvents(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Deleted {} published outbox events older than {} days", deleted, retentionDays);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.bi.service;
+
+import com.bi.entity.OutboxEvent;
+import com.bi.entity.OutboxEvent.EventStatus;
+import com.bi.events.CourseEventHeaders;
+import com.bi.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes one outbox partition (events whose aggregate id falls into the slice)
+ * per transaction. The partition advisory lock and the row locks are held until the
+ * batch outcome is written, so replicas and worker threads never publish the same
+ * rows and events of one aggregate are always published by a single worker in order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxPartitionWorker {
+
+    private final OutboxEventRepository outboxRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final OutboxMetrics metrics;
+
+    private static final String TOPIC = "course-events";
+    private static final int LOCK_NAMESPACE = 0x0B0E;
+
+    @Value("${outbox.publisher.partitions:16}")
+    private int partitions;
+
+    @Value("${outbox.publisher.max-in-flight:50}")
+    private int maxInFlight;
+
+    @Value("${outbox.publisher.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.retry.max-retries:12}")
+    private int maxRetries;
+
+    @Value("${outbox.retry.base-backoff-ms:1000}")
+    private long baseBackoffMs;
+
+    @Value("${outbox.retry.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @return number of events claimed, 0 when the partition is empty or owned elsewhere
+     */
+    @Transactional
+    public int publishPending(int partition, int batchSize) {
+        if (!outboxRepository.tryLockPartition(LOCK_NAMESPACE, partition)) {
+            return 0;
+        }
+        List<OutboxEvent> pendingEvents = outboxRepository
+                .claimPendingEvents(partitions, partition, PageRequest.of(0, batchSize));
+        
+        if (!pendingEvents.isEmpty()) {
+            log.info("Found {} pending events to publish in partition {}", pendingEvents.size(), partition);
+            publishBatch(pendingEvents);
+        }
+        return pendingEvents.size();
+    }
+
+    /**
+     * @return number of events claimed, 0 when nothing is due or the partition is owned elsewhere
+     */
+    @Transactional
+    public int retryFailed(int partition, int batchSize) {
+        if (!outboxRepository.tryLockPartition(LOCK_NAMESPACE, partition)) {
+            return 0;
+        }
+        List<OutboxEvent> failedEvents = outboxRepository.claimDueRetries(
+                partitions, partition, PageRequest.of(0, batchSize));
+        
+        if (!failedEvents.isEmpty()) {
+            log.info("Found {} failed events to retry in partition {}", failedEvents.size(), partition);
+            publishBatch(failedEvents);
+        }
+        return failedEvents.size();
+    }
+
+    /**
+     * Send the batch asynchronously, keeping at most {@code maxInFlight} records
+     * unacknowledged, then wait for all acks and record the outcome with one bulk update
+     * per result. Records are keyed by course id, so events of the same course land on
+     * the same partition. A course's events go out in waves, one per wave in outbox
+     * order, and once one of them fails its later events are not sent: they keep their
+     * status and are claimed again only after the failed event is published.
+     */
+    private void publishBatch(List<OutboxEvent> outboxEvents) {
+        if (kafkaTemplate.isTransactional()) {
+            publishBatchInTransaction(outboxEvents);
+            return;
+        }
+        long startedNanos = System.nanoTime();
+        Map<Long, Deque<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEvent outboxEvent : outboxEvents) {
+            byAggregate.computeIfAbsent(outboxEvent.getAggregateId(), k -> new ArrayDeque<>()).add(outboxEvent);
+        }
+        List<OutboxEvent> published = new ArrayList<>();
+        Map<String, List<OutboxEvent>> failed = new LinkedHashMap<>();
+        int heldBack = 0;
+        
+        while (!byAggregate.isEmpty()) {
+            List<OutboxEvent> wave = new ArrayList<>(byAggregate.size());
+            byAggregate.values().removeIf(events -> {
+                wave.add(events.poll());
+                return events.isEmpty();
+            });
+            for (OutboxEvent failedEvent : sendWave(wave, published, failed)) {
+                Deque<OutboxEvent> later = byAggregate.remove(failedEvent.getAggregateId());
+                heldBack += later == null ? 0 : later.size();
+            }
+        }
+        if (heldBack > 0) {
+            log.warn("Held back {} events behind a failed event of the same course", heldBack);
+        }
+        
+        metrics.recordBatch(startedNanos, false, outboxEvents.size());
+        recordOutcome(published, failed);
+    }
+    
+    /**
+     * Send events of distinct courses and wait for their acks. When a send times out
+     * before it is even queued the broker is unreachable, and the rest of the wave fails
+     * with it instead of waiting out the same timeout per record.
+     *
+     * @return the events that failed
+     */
+    private List<OutboxEvent> sendWave(List<OutboxEvent> wave, List<OutboxEvent> published,
+                                       Map<String, List<OutboxEvent>> failed) {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Map<OutboxEvent, CompletableFuture<?>> sends = new LinkedHashMap<>();
+        CompletableFuture<?> unavailable = null;
+        
+        for (OutboxEvent outboxEvent : wave) {
+            if (unavailable != null) {
+                sends.put(outboxEvent, unavailable);
+                continue;
+            }
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<?> send = send(outboxEvent);
+            send.whenComplete((result, ex) -> inFlight.release());
+            sends.put(outboxEvent, send);
+            if (isBrokerUnavailable(send)) {
+                unavailable = send;
+            }
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<OutboxEvent> failedEvents = new ArrayList<>();
+        
+        sends.forEach((outboxEvent, send) -> {
+            try {
+                send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                published.add(outboxEvent);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                log.error("Failed to publish event {}: {}", outboxEvent.getId(), cause.getMessage());
+                failed.computeIfAbsent(truncate(String.valueOf(cause.getMessage())), k -> new ArrayList<>())
+                        .add(outboxEvent);
+                failedEvents.add(outboxEvent);
+            }
+        });
+        return failedEvents;
+    }
+    
+    /**
+     * Send the batch in one Kafka transaction: read_committed consumers see all of its
+     * records or none, and a failed batch is retried as a whole.
+     */
+    private void publishBatchInTransaction(List<OutboxEvent> outboxEvents) {
+        long startedNanos = System.nanoTime();
+        List<OutboxEvent> published = new ArrayList<>();
+        Map<String, List<OutboxEvent>> failed = new LinkedHashMap<>();
+        try {
+            kafkaTemplate.executeInTransaction(operations -> {
+                CompletableFuture<?>[] sends = outboxEvents.stream()
+                        .map(this::send)
+                        .toArray(CompletableFuture[]::new);
+                operations.flush();
+                CompletableFuture.allOf(sends).join();
+                return null;
+            });
+            published.addAll(outboxEvents);
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Failed to publish batch of {} events: {}", outboxEvents.size(), cause.getMessage());
+            failed.put(truncate(String.valueOf(cause.getMessage())), outboxEvents);
+        }
+        metrics.recordBatch(startedNanos, true, outboxEvents.size());
+        recordOutcome(published, failed);
+    }
+    
+    private void recordOutcome(List<OutboxEvent> published, Map<String, List<OutboxEvent>> failed) {
+        if (!published.isEmpty()) {
+            LocalDateTime publishedAt = LocalDateTime.now();
+            outboxRepository.markPublished(published.stream().map(OutboxEvent::getId).toList(),
+                    publishedAt, EventStatus.PUBLISHED);
+            metrics.recordPublished(published, publishedAt);
+            log.info("Successfully published {} events", published.size());
+        }
+        failed.forEach((errorMessage, outboxEvents) -> {
+            // Out of attempts: the event goes DEAD and waits for a requeue
+            List<OutboxEvent> dead = outboxEvents.stream()
+                    .filter(outboxEvent -> outboxEvent.getRetryCount() + 1 >= maxRetries)
+                    .toList();
+            dead.forEach(outboxEvent -> log.error("Event {} exceeded max retries ({}), marked DEAD. Requeue it once the cause is fixed.",
+                    outboxEvent.getId(), maxRetries));
+            outboxRepository.markFailed(outboxEvents.stream().map(OutboxEvent::getId).toList(),
+                    errorMessage, maxRetries, baseBackoffMs, maxBackoffMs);
+            metrics.recordFailed(outboxEvents.size(), dead.size());
+        });
+    }
+    
+    /**
+     * Forward the stored payload as is: it was encoded when the outbox row was written,
+     * so publishing never parses or re-serializes the event. Event metadata travels in
+     * headers, the outbox id lets consumers drop redelivered records.
+     */
+    private CompletableFuture<?> send(OutboxEvent outboxEvent) {
+        try {
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+                    TOPIC, outboxEvent.getAggregateId().toString(), outboxEvent.getPayload());
+            record.headers()
+                    .add(CourseEventHeaders.CONTENT_TYPE, utf8(outboxEvent.getContentType()))
+                    .add(CourseEventHeaders.EVENT_TYPE, utf8(outboxEvent.getEventType()))
+                    .add(CourseEventHeaders.OUTBOX_ID, utf8(outboxEvent.getId().toString()));
+            return kafkaTemplate.send(record);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private static boolean isBrokerUnavailable(CompletableFuture<?> send) {
+        Throwable failure = send.handle((result, ex) -> ex).getNow(null);
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
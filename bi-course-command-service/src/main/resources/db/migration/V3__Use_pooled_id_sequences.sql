@@ -0,0 +1,29 @@
+-- Let Hibernate allocate ids in blocks of 50 (pooled optimizer) so that inserts
+-- of courses and outbox events can be sent as JDBC batches instead of one
+-- round trip per row with IDENTITY generation
+
+-- Tables created by Hibernate before the migrations were run at startup have
+-- identity columns, whose sequences cannot be detached or shared. Turn them into
+-- plain sequence defaults, as created by V1 and V2. The pooled optimizer takes
+-- a sequence value as the top of its block, so the first value is set a block
+-- above the highest id.
+DO $$
+DECLARE
+    target TEXT;
+    next_id BIGINT;
+BEGIN
+    FOREACH target IN ARRAY ARRAY['courses', 'outbox_events'] LOOP
+        CONTINUE WHEN NOT EXISTS (
+            SELECT 1 FROM information_schema.columns c
+            WHERE c.table_schema = current_schema() AND c.table_name = target
+              AND c.column_name = 'id' AND c.is_identity = 'YES');
+        EXECUTE format('SELECT COALESCE(max(id), 0) + 50 FROM %I', target) INTO next_id;
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', target);
+        EXECUTE format('CREATE SEQUENCE %I OWNED BY %I.id', target || '_id_seq', target);
+        PERFORM setval(quote_ident(target || '_id_seq'), next_id, false);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', target, target || '_id_seq');
+    END LOOP;
+END $$;
+
+ALTER SEQUENCE courses_id_seq INCREMENT BY 50;
+ALTER SEQUENCE outbox_events_id_seq INCREMENT BY 50;
@@ -0,0 +1,7 @@
+-- Store encoded event payloads as raw bytes so the publisher can forward them
+-- without parsing, and record the encoding of each row. Existing rows are JSON.
+ALTER TABLE outbox_events
+    ALTER COLUMN payload TYPE BYTEA USING convert_to(payload, 'UTF8');
+
+ALTER TABLE outbox_events
+    ADD COLUMN content_type VARCHAR(100) NOT NULL DEFAULT 'application/json';
@@ -0,0 +1,3 @@
+-- Optimistic locking: every update bumps the version, which clients see as the
+-- course ETag and send back in If-Match
+ALTER TABLE courses ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
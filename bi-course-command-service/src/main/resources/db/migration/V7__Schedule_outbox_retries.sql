@@ -0,0 +1,24 @@
+-- Retry failed events on an exponential backoff schedule instead of rescanning
+-- every failed row of the last 24 hours each minute. A failed event records when
+-- it is due next; events that ran out of attempts move to the terminal DEAD
+-- status, where no poll looks at them until they are requeued.
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at TIMESTAMP;
+
+-- Failed rows the old retry loop had given up on (3 attempts or older than a day)
+UPDATE outbox_events SET status = 'DEAD', next_attempt_at = NULL
+WHERE status = 'FAILED' AND (retry_count >= 3 OR created_at <= LOCALTIMESTAMP - INTERVAL '24 hours');
+
+UPDATE outbox_events SET next_attempt_at = LOCALTIMESTAMP
+WHERE status = 'FAILED';
+
+-- Unpublished rows including DEAD ones, for the pending poll, backlog and requeue queries
+DROP INDEX idx_outbox_unpublished;
+CREATE INDEX idx_outbox_unpublished ON outbox_events (status, created_at, id)
+    WHERE status <> 'PUBLISHED';
+
+-- "Due now" lookup of the retry poll
+CREATE INDEX idx_outbox_retry_due ON outbox_events (next_attempt_at, id)
+    WHERE status = 'FAILED';
+
+COMMENT ON COLUMN outbox_events.status IS 'PENDING, PUBLISHED, FAILED (retry scheduled at next_attempt_at) or DEAD (out of attempts)';
+COMMENT ON COLUMN outbox_events.next_attempt_at IS 'When a FAILED event is retried next';
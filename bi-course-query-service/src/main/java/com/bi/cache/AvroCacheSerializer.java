@@ -0,0 +1,130 @@
+package com.bi.cache;
+
+import com.bi.avro.AvroBinary;
+import com.bi.avro.AvroBinary.FieldReader;
+import com.bi.avro.AvroBinary.FieldWriter;
+import com.bi.dto.response.CourseDTO;
+import com.bi.dto.response.PageResponse;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Avro binary encoding of cached course envelopes for the Redis tier: a schema version
+ * byte followed by the record, without field names or type metadata. The layouts are
+ * {@code avro/cached-course-v1.avsc} and {@code avro/cached-course-page-v1.avsc}.
+ * Entries in any other format (e.g. JSON written before the switch) fail to read and
+ * are reloaded.
+ */
+public final class AvroCacheSerializer<T> implements RedisSerializer<CacheEnvelope<T>> {
+    private static final byte VERSION = 1;
+
+    private final String name;
+    private final FieldWriter<T> valueWriter;
+    private final FieldReader<T> valueReader;
+
+    private AvroCacheSerializer(String name, FieldWriter<T> valueWriter, FieldReader<T> valueReader) {
+        this.name = name;
+        this.valueWriter = valueWriter;
+        this.valueReader = valueReader;
+    }
+
+    public static AvroCacheSerializer<CourseDTO> course() {
+        return new AvroCacheSerializer<>("CachedCourse", AvroCacheSerializer::writeCourse,
+                AvroCacheSerializer::readCourse);
+    }
+
+    public static AvroCacheSerializer<PageResponse<CourseDTO>> page() {
+        return new AvroCacheSerializer<>("CachedCoursePage", AvroCacheSerializer::writePage,
+                AvroCacheSerializer::readPage);
+    }
+
+    @Override
+    public byte[] serialize(CacheEnvelope<T> envelope) {
+        if (envelope == null) {
+            return null;
+        }
+        try {
+            return AvroBinary.encode(VERSION, envelope, (encoder, value) -> {
+                valueWriter.write(encoder, value.value());
+                encoder.writeLong(value.computedAt());
+                encoder.writeLong(value.loadMillis());
+            });
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not write " + name, e);
+        }
+    }
+
+    @Override
+    public CacheEnvelope<T> deserialize(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length == 0 || bytes[0] != VERSION) {
+            throw new SerializationException("Not a " + name + " v" + VERSION + " entry");
+        }
+        try {
+            return AvroBinary.decode(bytes, decoder ->
+                    new CacheEnvelope<>(valueReader.read(decoder), decoder.readLong(), decoder.readLong()));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not read " + name, e);
+        }
+    }
+
+    private static void writePage(BinaryEncoder encoder, PageResponse<CourseDTO> page) throws IOException {
+        List<CourseDTO> content = page.getContent();
+        encoder.writeArrayStart();
+        encoder.setItemCount(content.size());
+        for (CourseDTO course : content) {
+            encoder.startItem();
+            writeCourse(encoder, course);
+        }
+        encoder.writeArrayEnd();
+        encoder.writeInt(page.getPageNumber());
+        encoder.writeInt(page.getPageSize());
+        encoder.writeLong(page.getTotalElements());
+    }
+
+    private static PageResponse<CourseDTO> readPage(BinaryDecoder decoder) throws IOException {
+        List<CourseDTO> content = new ArrayList<>();
+        for (long block = decoder.readArrayStart(); block != 0; block = decoder.arrayNext()) {
+            for (long i = 0; i < block; i++) {
+                content.add(readCourse(decoder));
+            }
+        }
+        return new PageResponse<>(content, decoder.readInt(), decoder.readInt(), decoder.readLong());
+    }
+
+    private static void writeCourse(BinaryEncoder encoder, CourseDTO course) throws IOException {
+        encoder.writeLong(course.getId());
+        AvroBinary.writeOptionalString(encoder, course.getName());
+        AvroBinary.writeOptionalString(encoder, course.getDescription());
+        AvroBinary.writeOptionalDouble(encoder, course.getPrice());
+        AvroBinary.writeOptionalStrings(encoder, course.getTags());
+        AvroBinary.writeOptionalLong(encoder, course.getInstructorId());
+        AvroBinary.writeOptionalString(encoder, course.getStatus());
+        AvroBinary.writeOptionalDateTime(encoder, course.getCreatedAt());
+        AvroBinary.writeOptionalDateTime(encoder, course.getUpdatedAt());
+        AvroBinary.writeOptionalLong(encoder, course.getVersion());
+    }
+
+    private static CourseDTO readCourse(BinaryDecoder decoder) throws IOException {
+        return CourseDTO.builder()
+                .id(decoder.readLong())
+                .name(AvroBinary.readOptionalString(decoder))
+                .description(AvroBinary.readOptionalString(decoder))
+                .price(AvroBinary.readOptionalDouble(decoder))
+                .tags(AvroBinary.readOptionalStrings(decoder))
+                .instructorId(AvroBinary.readOptionalLong(decoder))
+                .status(AvroBinary.readOptionalString(decoder))
+                .createdAt(AvroBinary.readOptionalDateTime(decoder))
+                .updatedAt(AvroBinary.readOptionalDateTime(decoder))
+                .version(AvroBinary.readOptionalLong(decoder))
+                .build();
+    }
+}
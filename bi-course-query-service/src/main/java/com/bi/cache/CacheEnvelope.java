@@ -0,0 +1,11 @@
+package com.bi.cache;
+
+/**
+ * Cached value with what early refresh needs to know about it: when it was computed
+ * and how long computing it took. Stored as-is in both cache tiers.
+ *
+ * @param computedAt epoch millis at which the value was loaded
+ * @param loadMillis how long the load took
+ */
+public record CacheEnvelope<T>(T value, long computedAt, long loadMillis) {
+}
@@ -0,0 +1,69 @@
+package com.bi.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations to every query-service pod over Redis pub/sub,
+ * so in-process caches stay coherent with Redis. Messages a pod sent itself are ignored.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+    private final StringRedisTemplate redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final List<Consumer<Invalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Value("${spring.cache.redis.key-prefix:}")
+    private String keyPrefix;
+
+    public enum Type {
+        EVICT,
+        CLEAR,
+        GENERATION
+    }
+
+    /**
+     * @param key evicted key for EVICT, null otherwise
+     */
+    public record Invalidation(Type type, String cacheName, String key) {
+    }
+
+    public String getChannel() {
+        return keyPrefix + "cache-invalidation";
+    }
+
+    public void subscribe(Consumer<Invalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void publish(Invalidation invalidation) {
+        String message = String.join("|", invalidation.type().name(), instanceId, invalidation.cacheName(),
+                invalidation.key() == null ? "" : invalidation.key());
+        redisTemplate.convertAndSend(getChannel(), message);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // The key goes last so that '|' inside search keys survives the split
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || instanceId.equals(parts[1])) {
+            return;
+        }
+        Invalidation invalidation = new Invalidation(Type.valueOf(parts[0]), parts[2], parts[3]);
+        log.debug("Received cache invalidation: {}", invalidation);
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+}
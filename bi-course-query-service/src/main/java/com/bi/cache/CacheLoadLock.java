@@ -0,0 +1,52 @@
+package com.bi.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short Redis lock taken by the pod that loads a missing cache entry, so other pods
+ * wait for its value instead of running the same query. The lock expires on its own
+ * if the holder dies, and is only released by the holder.
+ */
+@Component
+public class CacheLoadLock {
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final Duration leaseTime;
+
+    public CacheLoadLock(StringRedisTemplate redisTemplate,
+                         @Value("${spring.cache.redis.key-prefix:}") String keyPrefix,
+                         @Value("${course.cache.lock.lease-ms:5000}") long leaseMs) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.leaseTime = Duration.ofMillis(leaseMs);
+    }
+
+    /**
+     * @return the token to release the lock with, or null if another pod holds it
+     */
+    public String tryAcquire(String cacheName, String key) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, leaseTime);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    public void release(String cacheName, String key, String token) {
+        redisTemplate.execute(RELEASE, List.of(lockKey(cacheName, key)), token);
+    }
+
+    private String lockKey(String cacheName, String key) {
+        return keyPrefix + "lock:" + cacheName + ":" + key;
+    }
+}
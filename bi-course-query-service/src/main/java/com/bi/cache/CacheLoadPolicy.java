@@ -0,0 +1,20 @@
+package com.bi.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * How {@link TwoTierCache} loads missing and expiring entries.
+ *
+ * @param timeToLive      Redis entry TTL, early refresh is off when null
+ * @param refreshBeta     early refresh eagerness, 0 turns it off; with 1 an entry is refreshed
+ *                        roughly one load duration before it expires
+ * @param lock            cross-pod load lock, null to deduplicate loads within a pod only
+ * @param lockWait        how long a pod that did not get the lock waits for the holder's value
+ * @param refreshExecutor runs early refreshes while the current value keeps being served
+ */
+public record CacheLoadPolicy(Duration timeToLive, double refreshBeta, CacheLoadLock lock, Duration lockWait,
+                              Executor refreshExecutor, MeterRegistry meterRegistry) {
+}
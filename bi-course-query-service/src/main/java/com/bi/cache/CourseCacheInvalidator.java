@@ -0,0 +1,70 @@
+package com.bi.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Invalidates only the cache entries a course change can affect:
+ * <ul>
+ *   <li>{@code courses::<id>} is evicted for every changed course</li>
+ *   <li>cached pages are tagged with the courses they contain ({@link CourseCacheTags});
+ *       a change that keeps the course in the same pages evicts just the tagged pages,
+ *       while a create or an archive/restore shifts page boundaries and bumps the page
+ *       generation</li>
+ *   <li>search results are tagged the same way and follow the same rule: only a create
+ *       or an archive/restore bumps the search generation, any other change evicts just
+ *       the results that contain the course. An edit that makes the course match a search
+ *       it was not in shows up there once that entry expires.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseCacheInvalidator {
+    private final CacheManager cacheManager;
+    private final CourseCacheKeys cacheKeys;
+    private final CourseCacheTags cacheTags;
+
+    /**
+     * @param membershipChanged true if the course was created or moved in or out of the
+     *                          non-archived listing, so page boundaries may have shifted
+     */
+    public record CourseChange(Long courseId, boolean membershipChanged) {
+    }
+
+    public void invalidate(Collection<CourseChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Cache courses = cacheManager.getCache(CourseCacheKeys.COURSES);
+        Cache pages = cacheManager.getCache(CourseCacheKeys.PAGES);
+        Cache searches = cacheManager.getCache(CourseCacheKeys.SEARCHES);
+
+        boolean pagesShifted = false;
+        boolean searchesShifted = false;
+        for (CourseChange change : changes) {
+            courses.evict(change.courseId());
+            if (change.membershipChanged()) {
+                pagesShifted = true;
+                searchesShifted = true;
+            } else {
+                cacheTags.takeTagged(CourseCacheKeys.PAGES, change.courseId()).forEach(pages::evict);
+                cacheTags.takeTagged(CourseCacheKeys.SEARCHES, change.courseId()).forEach(searches::evict);
+            }
+        }
+
+        if (pagesShifted) {
+            cacheKeys.bumpGeneration(CourseCacheKeys.PAGES);
+        }
+        if (searchesShifted) {
+            cacheKeys.bumpGeneration(CourseCacheKeys.SEARCHES);
+        }
+        log.debug("Invalidated cache entries for {} courses (pages shifted: {}, searches shifted: {})",
+                changes.size(), pagesShifted, searchesShifted);
+    }
+}
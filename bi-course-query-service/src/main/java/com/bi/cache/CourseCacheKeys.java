@@ -0,0 +1,85 @@
+package com.bi.cache;
+
+import com.bi.cache.CacheInvalidationBus.Invalidation;
+import com.bi.cache.CacheInvalidationBus.Type;
+import com.bi.search.CourseSearchCriteria;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds cache keys for list results. Page and search keys embed a generation number
+ * shared through Redis; bumping it makes every older entry of that cache unreachable
+ * at once, without scanning or deleting keys. Generations are re-read at most once per
+ * {@code course.cache.generation-refresh-ms}, so lookups usually cost no extra round trip,
+ * and bumps are broadcast so other pods switch to the new generation right away.
+ */
+@Component("courseCacheKeys")
+@RequiredArgsConstructor
+public class CourseCacheKeys {
+    public static final String COURSES = "courses";
+    public static final String PAGES = "coursePages";
+    public static final String SEARCHES = "courseSearches";
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    @Value("${spring.cache.redis.key-prefix:}")
+    private String keyPrefix;
+
+    @Value("${course.cache.generation-refresh-ms:1000}")
+    private long generationRefreshMs;
+
+    private record Generation(long value, long readAt) {
+    }
+
+    @PostConstruct
+    void subscribeToGenerationChanges() {
+        invalidationBus.subscribe(invalidation -> {
+            if (invalidation.type() == Type.GENERATION) {
+                generations.put(invalidation.cacheName(),
+                        new Generation(Long.parseLong(invalidation.key()), System.currentTimeMillis()));
+            }
+        });
+    }
+
+    public String page(Pageable pageable, boolean includeArchived) {
+        return "page_" + generation(PAGES) + "_" + pageable.getPageNumber() + "_" + pageable.getPageSize()
+                + "_" + includeArchived;
+    }
+
+    public String search(CourseSearchCriteria criteria, Pageable pageable) {
+        return "search_" + generation(SEARCHES) + "_" + criteria.keyword() + "_" + criteria.minPrice()
+                + "_" + criteria.maxPrice() + "_" + criteria.tags() + "_" + criteria.prefix()
+                + "_" + pageable.getPageNumber() + "_" + pageable.getPageSize();
+    }
+
+    public long generation(String cacheName) {
+        long now = System.currentTimeMillis();
+        Generation cached = generations.get(cacheName);
+        if (cached != null && now - cached.readAt() < generationRefreshMs) {
+            return cached.value();
+        }
+        String stored = redisTemplate.opsForValue().get(generationKey(cacheName));
+        long generation = stored == null ? 0 : Long.parseLong(stored);
+        generations.put(cacheName, new Generation(generation, now));
+        return generation;
+    }
+
+    public void bumpGeneration(String cacheName) {
+        Long generation = redisTemplate.opsForValue().increment(generationKey(cacheName));
+        generations.put(cacheName, new Generation(generation, System.currentTimeMillis()));
+        invalidationBus.publish(new Invalidation(Type.GENERATION, cacheName, String.valueOf(generation)));
+    }
+
+    private String generationKey(String cacheName) {
+        return keyPrefix + "generation:" + cacheName;
+    }
+}
@@ -0,0 +1,71 @@
+package com.bi.cache;
+
+import com.bi.dto.response.CourseDTO;
+import com.bi.dto.response.PageResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Remembers which cached pages and search results contain a course, in a Redis set
+ * per course and cache that lives as long as the entries
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseCacheTags {
+    // Read and delete in one step, so a tag added in between is neither lost nor left behind
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TAKE = new DefaultRedisScript<>(
+            "local keys = redis.call('smembers', KEYS[1]) redis.call('del', KEYS[1]) return keys",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${spring.cache.redis.key-prefix:}")
+    private String keyPrefix;
+
+    @Value("${spring.cache.redis.time-to-live:3600000}")
+    private long timeToLiveMs;
+
+    /**
+     * Tag a result with its courses, under the exact key it is about to be stored with
+     */
+    public void tag(String cacheName, String key, PageResponse<CourseDTO> page) {
+        List<Long> courseIds = page.getContent().stream().map(CourseDTO::getId).toList();
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        byte[] member = key.getBytes(StandardCharsets.UTF_8);
+        long ttlSeconds = timeToLiveMs / 1000;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long courseId : courseIds) {
+                byte[] tagKey = tagKey(cacheName, courseId).getBytes(StandardCharsets.UTF_8);
+                connection.setCommands().sAdd(tagKey, member);
+                connection.keyCommands().expire(tagKey, ttlSeconds);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Take the keys of the entries of a cache that contain the course, clearing its tags
+     */
+    @SuppressWarnings("unchecked")
+    public Set<String> takeTagged(String cacheName, Long courseId) {
+        List<String> keys = redisTemplate.execute(TAKE, List.of(tagKey(cacheName, courseId)));
+        return keys == null ? Set.of() : new HashSet<>(keys);
+    }
+
+    private String tagKey(String cacheName, Long courseId) {
+        return keyPrefix + "tag:" + cacheName + ":" + courseId;
+    }
+}
@@ -0,0 +1,375 @@
+package com.bi.cache;
+
+import com.bi.cache.CacheInvalidationBus.Invalidation;
+import com.bi.cache.CacheInvalidationBus.Type;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process Caffeine cache (L1) in front of a shared Redis cache (L2).
+ * Reads try L1 first and fill it from L2; writes go to both tiers; evictions
+ * are applied to both tiers and broadcast so other pods drop their L1 copy.
+ * L1 entries are keyed by the string form of the cache key, which is also
+ * what travels in invalidation messages.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} are single-flight: concurrent misses
+ * for a key in a pod wait for one load, and with a {@link CacheLoadLock} pods wait
+ * for each other too. Entries close to their TTL are refreshed early in the
+ * background (probabilistic early expiration) while the current value is served.
+ * <p>
+ * Invalidations, local or from other pods, bump a generation of the evicted key's
+ * stripe (or of the whole cache for a clear). A value read from L2 or loaded is
+ * stored only if the generation it started with is still current, so a value read
+ * before an invalidation is not written back after it.
+ */
+@Slf4j
+public class TwoTierCache implements Cache {
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, CacheEnvelope<?>> local;
+    private final Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheLoadPolicy loadPolicy;
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong clearGeneration = new AtomicLong();
+    private final AtomicLongArray evictGenerations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Counter loaded;
+    private final Counter coalesced;
+    private final Counter refreshed;
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    private static final long LOCK_POLL_MS = 50;
+    private static final int GENERATION_STRIPES = 1024;
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, CacheEnvelope<?>> local,
+                        Cache remote, CacheInvalidationBus invalidationBus, CacheLoadPolicy loadPolicy) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.loadPolicy = loadPolicy;
+        this.loaded = loadCounter("loaded");
+        this.coalesced = loadCounter("coalesced");
+        this.refreshed = loadCounter("refreshed");
+        this.localHits = getCounter("l1", "hit");
+        this.localMisses = getCounter("l1", "miss");
+        this.remoteHits = getCounter("l2", "hit");
+        this.remoteMisses = getCounter("l2", "miss");
+        Gauge.builder("course.cache.l1.size", local, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                .description("Entries in the in-process tier")
+                .tag("cache", name)
+                .register(loadPolicy.meterRegistry());
+        FunctionCounter.builder("course.cache.l1.evictions", local, cache -> cache.stats().evictionCount())
+                .description("Entries dropped from the in-process tier for size or age")
+                .tag("cache", name)
+                .register(loadPolicy.meterRegistry());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheEnvelope<?> envelope = lookup(key);
+        return envelope == null ? null : new SimpleValueWrapper(envelope.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheEnvelope<?> envelope = lookup(key);
+        if (envelope != null) {
+            if (shouldRefreshEarly(envelope)) {
+                refreshInBackground(key, valueLoader);
+            }
+            return (T) envelope.value();
+        }
+
+        String localKey = localKey(key);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(localKey, load);
+        if (inFlight != null) {
+            coalesced.increment();
+            return (T) await(inFlight, key, valueLoader);
+        }
+        try {
+            Object value = loadOnce(key, valueLoader);
+            load.complete(value);
+            return (T) value;
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loading.remove(localKey, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key, new CacheEnvelope<>(value, System.currentTimeMillis(), 0));
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictGenerations.incrementAndGet(stripe(localKey(key)));
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        invalidationBus.publish(new Invalidation(Type.EVICT, name, localKey(key)));
+    }
+
+    @Override
+    public void clear() {
+        clearGeneration.incrementAndGet();
+        remote.clear();
+        local.invalidateAll();
+        invalidationBus.publish(new Invalidation(Type.CLEAR, name, null));
+    }
+
+    /**
+     * Apply an invalidation received from another pod to L1 only
+     */
+    void invalidateLocal(Invalidation invalidation) {
+        if (invalidation.type() == Type.EVICT) {
+            evictGenerations.incrementAndGet(stripe(invalidation.key()));
+            local.invalidate(invalidation.key());
+        } else if (invalidation.type() == Type.CLEAR) {
+            clearGeneration.incrementAndGet();
+            local.invalidateAll();
+        }
+    }
+
+    private CacheEnvelope<?> lookup(Object key) {
+        String localKey = localKey(key);
+        CacheEnvelope<?> envelope = local.getIfPresent(localKey);
+        if (envelope != null) {
+            localHits.increment();
+            return envelope;
+        }
+        localMisses.increment();
+        long generation = generation(localKey);
+        envelope = lookupRemote(key);
+        if (envelope == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        if (envelope.value() != null) {
+            putLocalIfCurrent(localKey, envelope, generation);
+        }
+        return envelope;
+    }
+
+    private CacheEnvelope<?> lookupRemote(Object key) {
+        try {
+            ValueWrapper wrapper = remote.get(key);
+            return wrapper == null ? null : (CacheEnvelope<?>) wrapper.get();
+        } catch (SerializationException e) {
+            // Written in an older format, load it again
+            log.debug("Dropping unreadable {} entry {}: {}", name, key, e.getMessage());
+            remote.evict(key);
+            return null;
+        }
+    }
+
+    /**
+     * Load a missing entry. With a load lock only the pod holding it loads; the others
+     * poll Redis for its value and only load themselves if none shows up in time.
+     */
+    private Object loadOnce(Object key, Callable<?> valueLoader) throws Exception {
+        CacheLoadLock lock = loadPolicy.lock();
+        if (lock == null) {
+            return load(key, valueLoader);
+        }
+        String token = lock.tryAcquire(name, localKey(key));
+        if (token != null) {
+            try {
+                return load(key, valueLoader);
+            } finally {
+                lock.release(name, localKey(key), token);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + loadPolicy.lockWait().toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(LOCK_POLL_MS);
+            long generation = generation(localKey(key));
+            CacheEnvelope<?> envelope = lookupRemote(key);
+            if (envelope != null) {
+                coalesced.increment();
+                putLocalIfCurrent(localKey(key), envelope, generation);
+                return envelope.value();
+            }
+        }
+        return load(key, valueLoader);
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) throws Exception {
+        long generation = generation(localKey(key));
+        long start = System.currentTimeMillis();
+        Object value = valueLoader.call();
+        loaded.increment();
+        storeIfCurrent(key, new CacheEnvelope<>(value, System.currentTimeMillis(), System.currentTimeMillis() - start),
+                generation);
+        return value;
+    }
+
+    private void store(Object key, CacheEnvelope<?> envelope) {
+        if (envelope.value() == null) {
+            return;
+        }
+        remote.put(key, envelope);
+        local.put(localKey(key), envelope);
+    }
+
+    /**
+     * Store a loaded value unless the key was invalidated since {@code generation} was read
+     */
+    private void storeIfCurrent(Object key, CacheEnvelope<?> envelope, long generation) {
+        String localKey = localKey(key);
+        if (envelope.value() == null || generation(localKey) != generation) {
+            return;
+        }
+        remote.put(key, envelope);
+        local.put(localKey, envelope);
+        if (generation(localKey) != generation) {
+            // The invalidation ran while storing and may have missed the value just written
+            remote.evict(key);
+            local.invalidate(localKey);
+        }
+    }
+
+    /**
+     * Copy a value read from Redis into L1 unless the key was invalidated since
+     * {@code generation} was read, e.g. by another pod's eviction that arrived mid-read
+     */
+    private void putLocalIfCurrent(String localKey, CacheEnvelope<?> envelope, long generation) {
+        if (generation(localKey) != generation) {
+            return;
+        }
+        local.put(localKey, envelope);
+        if (generation(localKey) != generation) {
+            local.invalidate(localKey);
+        }
+    }
+
+    /**
+     * Changes whenever the key is evicted or the cache cleared. Keys share a stripe,
+     * so an eviction can also hold back the store of an unrelated key; that one is
+     * just loaded again on its next miss.
+     */
+    private long generation(String localKey) {
+        return clearGeneration.get() + evictGenerations.get(stripe(localKey));
+    }
+
+    private static int stripe(String localKey) {
+        return Math.floorMod(localKey.hashCode(), GENERATION_STRIPES);
+    }
+
+    private Object await(CompletableFuture<Object> inFlight, Object key, Callable<?> valueLoader) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    /**
+     * XFetch: refresh when now - loadMillis * beta * ln(random) passes the expiry, so the
+     * chance grows as the entry ages and slow-to-load entries start earlier
+     */
+    private boolean shouldRefreshEarly(CacheEnvelope<?> envelope) {
+        if (loadPolicy.timeToLive() == null || loadPolicy.refreshBeta() <= 0) {
+            return false;
+        }
+        long expiresAt = envelope.computedAt() + loadPolicy.timeToLive().toMillis();
+        double gap = envelope.loadMillis() * loadPolicy.refreshBeta() * -Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= expiresAt;
+    }
+
+    private void refreshInBackground(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if (loading.putIfAbsent(localKey, refresh) != null) {
+            return;
+        }
+        try {
+            loadPolicy.refreshExecutor().execute(() -> {
+                try {
+                    refresh.complete(load(key, valueLoader));
+                    refreshed.increment();
+                } catch (Exception e) {
+                    refresh.completeExceptionally(e);
+                    log.warn("Early refresh of {} entry {} failed: {}", name, key, e.getMessage());
+                } finally {
+                    loading.remove(localKey, refresh);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(localKey, refresh);
+        }
+    }
+
+    private Counter loadCounter(String outcome) {
+        return Counter.builder("course.cache.loads")
+                .description("Cache loads by outcome, coalesced loads were served by another caller's load")
+                .tag("cache", name)
+                .tag("outcome", outcome)
+                .register(loadPolicy.meterRegistry());
+    }
+
+    /**
+     * Lookups per tier; L2 is only asked on an L1 miss, so the overall hit ratio is
+     * (l1 hits + l2 hits) / (l1 hits + l1 misses)
+     */
+    private Counter getCounter(String tier, String result) {
+        return Counter.builder("course.cache.gets")
+                .description("Cache lookups by tier and result")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(loadPolicy.meterRegistry());
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,55 @@
+package com.bi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps every cache of the Redis cache manager in a {@link TwoTierCache}
+ * with its own size- and TTL-bounded Caffeine tier and the shared load policy.
+ */
+public class TwoTierCacheManager implements CacheManager {
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final long localMaximumSize;
+    private final Duration localTimeToLive;
+    private final CacheLoadPolicy loadPolicy;
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, CacheInvalidationBus invalidationBus,
+                               long localMaximumSize, Duration localTimeToLive, CacheLoadPolicy loadPolicy) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationBus = invalidationBus;
+        this.localMaximumSize = localMaximumSize;
+        this.localTimeToLive = localTimeToLive;
+        this.loadPolicy = loadPolicy;
+        invalidationBus.subscribe(invalidation -> {
+            TwoTierCache cache = caches.get(invalidation.cacheName());
+            if (cache != null) {
+                cache.invalidateLocal(invalidation);
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            return remote == null ? null : new TwoTierCache(cacheName, Caffeine.newBuilder()
+                    .maximumSize(localMaximumSize)
+                    .expireAfterWrite(localTimeToLive)
+                    .recordStats()
+                    .<String, CacheEnvelope<?>>build(), remote, invalidationBus, loadPolicy);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+}
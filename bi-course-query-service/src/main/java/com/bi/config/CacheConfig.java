@@ -0,0 +1,142 @@
+package com.bi.config;
+
+import com.bi.cache.AvroCacheSerializer;
+import com.bi.cache.CacheEnvelope;
+import com.bi.cache.CacheInvalidationBus;
+import com.bi.cache.CacheLoadLock;
+import com.bi.cache.CacheLoadPolicy;
+import com.bi.cache.TwoTierCacheManager;
+import com.bi.dto.response.CourseDTO;
+import com.bi.dto.response.PageResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Value("${course.cache.l1.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${course.cache.l1.time-to-live-ms:30000}")
+    private long localTimeToLiveMs;
+
+    @Value("${course.cache.refresh.beta:1.0}")
+    private double refreshBeta;
+
+    @Value("${course.cache.lock.enabled:false}")
+    private boolean loadLockEnabled;
+
+    @Value("${course.cache.lock.wait-ms:2000}")
+    private long loadLockWaitMs;
+
+    @Value("${course.cache.serialization:avro}")
+    private String serialization;
+
+    /**
+     * Shared Redis tier (L2), configured from spring.cache.redis.*. Each cache is
+     * serialized with its concrete value type, so entries carry no class metadata:
+     * Avro binary by default, JSON with {@code course.cache.serialization=json}.
+     * Values are wrapped in a {@link CacheEnvelope} for early refresh.
+     */
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                               CacheProperties cacheProperties,
+                                               ObjectMapper objectMapper) {
+        CacheProperties.Redis redisProperties = cacheProperties.getRedis();
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig();
+        if (redisProperties.getTimeToLive() != null) {
+            defaults = defaults.entryTtl(redisProperties.getTimeToLive());
+        }
+        if (redisProperties.getKeyPrefix() != null) {
+            defaults = defaults.prefixCacheNameWith(redisProperties.getKeyPrefix());
+        }
+        if (!redisProperties.isCacheNullValues()) {
+            defaults = defaults.disableCachingNullValues();
+        }
+        if (!redisProperties.isUseKeyPrefix()) {
+            defaults = defaults.disableKeyPrefix();
+        }
+
+        SerializationPair<?> courseValues;
+        SerializationPair<?> pageValues;
+        if ("avro".equalsIgnoreCase(serialization)) {
+            courseValues = SerializationPair.fromSerializer(AvroCacheSerializer.course());
+            pageValues = SerializationPair.fromSerializer(AvroCacheSerializer.page());
+        } else {
+            TypeFactory types = objectMapper.getTypeFactory();
+            JavaType courseType = types.constructParametricType(CacheEnvelope.class, CourseDTO.class);
+            JavaType pageType = types.constructParametricType(CacheEnvelope.class,
+                    types.constructParametricType(PageResponse.class, CourseDTO.class));
+            courseValues = SerializationPair.fromSerializer(new Jackson2JsonRedisSerializer<>(objectMapper, courseType));
+            pageValues = SerializationPair.fromSerializer(new Jackson2JsonRedisSerializer<>(objectMapper, pageType));
+        }
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(defaults)
+                .withCacheConfiguration("courses", defaults.serializeValuesWith(courseValues))
+                .withCacheConfiguration("coursePages", defaults.serializeValuesWith(pageValues))
+                .withCacheConfiguration("courseSearches", defaults.serializeValuesWith(pageValues));
+        if (redisProperties.isEnableStatistics()) {
+            builder.enableStatistics();
+        }
+        return builder.build();
+    }
+
+    /**
+     * In-process Caffeine tier (L1) per pod in front of Redis, kept coherent by
+     * broadcasting evictions over {@link CacheInvalidationBus}
+     */
+    @Bean
+    @Primary
+    public CacheManager cacheManager(RedisCacheManager redisCacheManager, CacheInvalidationBus invalidationBus,
+                                     CacheProperties cacheProperties, CacheLoadLock loadLock,
+                                     ThreadPoolTaskExecutor cacheRefreshExecutor, MeterRegistry meterRegistry) {
+        CacheLoadPolicy loadPolicy = new CacheLoadPolicy(cacheProperties.getRedis().getTimeToLive(), refreshBeta,
+                loadLockEnabled ? loadLock : null, Duration.ofMillis(loadLockWaitMs),
+                cacheRefreshExecutor, meterRegistry);
+        return new TwoTierCacheManager(redisCacheManager, invalidationBus,
+                localMaximumSize, Duration.ofMillis(localTimeToLiveMs), loadPolicy);
+    }
+
+    /**
+     * Runs early refreshes of cache entries; when it is saturated entries simply
+     * expire and are reloaded on the next miss
+     */
+    @Bean
+    public ThreadPoolTaskExecutor cacheRefreshExecutor(@Value("${course.cache.refresh.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("cache-refresh-");
+        return executor;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationBus invalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(invalidationBus.getChannel()));
+        return container;
+    }
+}
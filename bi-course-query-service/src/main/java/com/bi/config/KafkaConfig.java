@@ -1,16 +1,35 @@
 package com.bi.config;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import com.bi.events.CourseEvent;
+import com.bi.events.codec.CourseEventCodecs;
+import com.bi.events.codec.CourseEventDeserializer;
+import com.bi.events.codec.CourseEventSerializer;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,28 +43,97 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${spring.kafka.consumer.auto-offset-reset:earliest}")
+    private String autoOffsetReset;
+
+    // Match the partition count of the course-events topic
+    @Value("${course.events.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${course.events.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${course.events.consumer.dead-letter-topic:course-events.DLT}")
+    private String deadLetterTopic;
+
+    @Value("${course.events.consumer.retry.interval-ms:1000}")
+    private long retryIntervalMs;
+
+    @Value("${course.events.consumer.retry.max-retries:9}")
+    private long maxRetries;
+
+    /**
+     * Values are decoded by content type, so JSON and Avro events can share the topic
+     * while producers are switched over. A value that cannot be decoded reaches the
+     * listener as null instead of failing the poll. Consumer client metrics, including
+     * {@code kafka.consumer.fetch.manager.records.lag.max}, are bound to the registry.
+     */
     @Bean
-    public ConsumerFactory<String, CourseEvent> consumerFactory() {
+    public ConsumerFactory<String, CourseEvent> consumerFactory(CourseEventCodecs eventCodecs,
+                                                                MeterRegistry meterRegistry) {
         Map<String, Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        // Skip records of aborted outbox batches when the producer is transactional
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         
-        JsonDeserializer<CourseEvent> deserializer = new JsonDeserializer<>(CourseEvent.class);
-        deserializer.setRemoveTypeHeaders(false);
-        deserializer.addTrustedPackages("com.bi.events");
-        
-        return new DefaultKafkaConsumerFactory<>(
+        DefaultKafkaConsumerFactory<String, CourseEvent> factory = new DefaultKafkaConsumerFactory<>(
             config, 
             new StringDeserializer(),
-            deserializer
+            new ErrorHandlingDeserializer<>(new CourseEventDeserializer(eventCodecs))
         );
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
+    /**
+     * Batch listener factory: each poll is handed to the listener as one list and the
+     * offsets of the poll are committed only after the listener returns successfully.
+     */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, CourseEvent> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, CourseEvent> kafkaListenerContainerFactory(
+            ConsumerFactory<String, CourseEvent> consumerFactory, DefaultErrorHandler courseEventsErrorHandler) {
         ConcurrentKafkaListenerContainerFactory<String, CourseEvent> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(courseEventsErrorHandler);
+        factory.getContainerProperties().setAckMode(AckMode.BATCH);
         return factory;
     }
-}
\ No newline at end of file
+
+    /**
+     * Undecodable records are dead-lettered at once, with their original bytes. Any other
+     * failure is retried with a fixed back-off and then dead-lettered, re-encoded in its
+     * original format, so one poison record cannot stall its partition.
+     */
+    @Bean
+    public DefaultErrorHandler courseEventsErrorHandler(KafkaTemplate<String, Object> deadLetterTemplate) {
+        // A negative partition lets the producer choose, so the DLT needs no matching partition count
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(deadLetterTemplate,
+                (record, exception) -> new TopicPartition(deadLetterTopic, -1));
+        return new DefaultErrorHandler(recoverer, new FixedBackOff(retryIntervalMs, maxRetries));
+    }
+
+    @Bean
+    public ProducerFactory<String, Object> deadLetterProducerFactory(CourseEventCodecs eventCodecs) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        Map<Class<?>, Serializer<?>> valueSerializers = Map.of(
+            byte[].class, new ByteArraySerializer(),
+            CourseEvent.class, new CourseEventSerializer(eventCodecs)
+        );
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(),
+            new DelegatingByTypeSerializer(valueSerializers));
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> deadLetterTemplate(ProducerFactory<String, Object> deadLetterProducerFactory) {
+        return new KafkaTemplate<>(deadLetterProducerFactory);
+    }
+}
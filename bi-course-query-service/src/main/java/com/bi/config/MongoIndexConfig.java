@@ -0,0 +1,75 @@
+package com.bi.config;
+
+import com.bi.document.CourseDocument;
+import com.bi.repository.CourseQueryPlanInspector;
+import com.bi.repository.CourseQueryPlanInspector.QueryPlan;
+import com.bi.service.CourseCompactionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on {@link CourseDocument} before the Kafka listeners start.
+ * The unique courseId index cannot be built while duplicates exist, so the first
+ * start after upgrading compacts them once; later starts find the index and skip it.
+ * Documents projected before search tokens existed are backfilled the same way.
+ * Once the indexes exist every repository query is explained and collection scans
+ * are reported, or fail the start when {@code course.query-plans.fail-on-collscan} is set.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexConfig implements SmartInitializingSingleton {
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final CourseCompactionService compactionService;
+    private final CourseQueryPlanInspector planInspector;
+
+    @Value("${course.query-plans.check-on-startup:true}")
+    private boolean checkPlansOnStartup;
+
+    @Value("${course.query-plans.fail-on-collscan:false}")
+    private boolean failOnCollectionScan;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        IndexOperations indexOps = mongoTemplate.indexOps(CourseDocument.class);
+
+        boolean courseIdUnique = indexOps.getIndexInfo().stream()
+                .anyMatch(index -> index.isUnique() && index.isIndexForFields(List.of("courseId")));
+        if (!courseIdUnique) {
+            log.info("Unique courseId index missing, compacting duplicate course documents");
+            compactionService.compactDuplicates();
+        }
+
+        new MongoPersistentEntityIndexResolver(mappingContext)
+                .resolveIndexFor(CourseDocument.class)
+                .forEach(indexOps::ensureIndex);
+
+        compactionService.backfillSearchTokens();
+
+        if (checkPlansOnStartup) {
+            checkQueryPlans();
+        }
+    }
+
+    private void checkQueryPlans() {
+        List<String> scans = planInspector.inspect().stream()
+                .filter(QueryPlan::collectionScan)
+                .peek(plan -> log.warn("Query {} runs a collection scan, filter: {}, plan: {}",
+                        plan.query(), plan.filter(), plan.stages()))
+                .map(QueryPlan::query)
+                .toList();
+        if (!scans.isEmpty() && failOnCollectionScan) {
+            throw new IllegalStateException("Queries without a usable index: " + scans);
+        }
+    }
+}
@@ -1,20 +1,36 @@
 package com.bi.controller;
 
 import com.bi.dto.response.CourseDTO;
+import com.bi.dto.response.CursorPageResponse;
 import com.bi.dto.response.PageResponse;
+import com.bi.search.CourseExportFilter;
+import com.bi.search.CourseSearchCriteria;
+import com.bi.service.CourseExportService;
 import com.bi.service.CourseQueryService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
 @RestController
 @RequestMapping("/courses-query")
 @Tag(name = "Course Queries", description = "Course read operations")
@@ -22,11 +38,18 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class CourseQueryController {
     private final CourseQueryService service;
+    private final CourseExportService exportService;
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get course by ID")
+    @Operation(summary = "Get course by ID, with its version as ETag for conditional updates")
     public ResponseEntity<CourseDTO> findById(@PathVariable Long id) {
-        return ResponseEntity.ok(service.findById(id));
+        CourseDTO course = service.findById(id);
+        if (course == null || course.getVersion() == null) {
+            return ResponseEntity.ok(course);
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(course.getVersion())).body(course);
     }
 
     @GetMapping
@@ -45,9 +68,102 @@ public class CourseQueryController {
             @Parameter(description = "Search keyword") @RequestParam(required = false) String keyword,
             @Parameter(description = "Minimum price") @RequestParam(required = false) Double minPrice,
             @Parameter(description = "Maximum price") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Courses must have all of these tags") @RequestParam(required = false) List<String> tags,
+            @Parameter(description = "Match the last keyword word as a prefix (type-ahead)") @RequestParam(defaultValue = "false") boolean prefix,
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(service.searchCourses(keyword, minPrice, maxPrice, pageable));
+        CourseSearchCriteria criteria = new CourseSearchCriteria(keyword, minPrice, maxPrice, tags, prefix);
+        return ResponseEntity.ok(service.searchCourses(criteria, pageable));
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Get active courses with cursor pagination, ordered by course ID")
+    public ResponseEntity<CursorPageResponse<CourseDTO>> scroll(
+            @Parameter(description = "Cursor from the previous page, omit for the first page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Include archived courses") @RequestParam(defaultValue = "false") boolean includeArchived,
+            @Parameter(description = "Also count all matching courses") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(service.scroll(null, includeArchived, after, size, includeTotal));
+    }
+
+    @GetMapping("/search/scroll")
+    @Operation(summary = "Search courses with cursor pagination, ordered by course ID")
+    public ResponseEntity<CursorPageResponse<CourseDTO>> searchScroll(
+            @Parameter(description = "Search keyword") @RequestParam(required = false) String keyword,
+            @Parameter(description = "Minimum price") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Courses must have all of these tags") @RequestParam(required = false) List<String> tags,
+            @Parameter(description = "Match the last keyword word as a prefix (type-ahead)") @RequestParam(defaultValue = "false") boolean prefix,
+            @Parameter(description = "Cursor from the previous page, omit for the first page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Also count all matching courses") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CourseSearchCriteria criteria = new CourseSearchCriteria(keyword, minPrice, maxPrice, tags, prefix);
+        return ResponseEntity.ok(service.scroll(criteria, false, after, size, includeTotal));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream the course catalog as NDJSON, gzip-compressed when the client accepts it")
+    public void export(
+            @Parameter(description = "Only courses in this status, all statuses when omitted") @RequestParam(required = false) String status,
+            @Parameter(description = "Minimum price") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Only courses updated at or after this time (ISO-8601), for incremental pulls")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+        CourseExportFilter filter = new CourseExportFilter(status, minPrice, maxPrice, updatedSince);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE)) {
+                exportService.export(filter, out);
+            }
+        } else {
+            exportService.export(filter, new BufferedOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE));
+        }
+    }
+
+    /**
+     * Whether the Accept-Encoding header allows gzip with a non-zero quality, either
+     * by name or through the {@code *} wildcard when gzip is not listed explicitly.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
     }
 }
\ No newline at end of file
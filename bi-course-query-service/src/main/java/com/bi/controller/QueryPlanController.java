@@ -0,0 +1,29 @@
+package com.bi.controller;
+
+import com.bi.repository.CourseQueryPlanInspector;
+import com.bi.repository.CourseQueryPlanInspector.QueryPlan;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/courses-query/admin/query-plans")
+@Tag(name = "Course Query Admin", description = "Diagnostics for the course read model")
+@RequiredArgsConstructor
+public class QueryPlanController {
+    private final CourseQueryPlanInspector planInspector;
+
+    @GetMapping
+    @Operation(summary = "Explain every repository query and flag collection scans")
+    public ResponseEntity<List<QueryPlan>> queryPlans() {
+        return ResponseEntity.ok(planInspector.inspect());
+    }
+}
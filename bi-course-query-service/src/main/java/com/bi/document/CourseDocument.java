@@ -6,11 +6,18 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Document(collection = "courses")
+@CompoundIndex(name = "status_price", def = "{ 'status': 1, 'price': 1 }")
+@CompoundIndex(name = "status_courseId", def = "{ 'status': 1, 'courseId': 1 }")
+@CompoundIndex(name = "updatedAt_courseId", def = "{ 'updatedAt': 1, 'courseId': 1 }")
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,16 +26,47 @@ public class CourseDocument {
     @Id
     private String id;
     
+    @Indexed(unique = true)
     private Long courseId;
 
     @Indexed
+    @TextIndexed(weight = 3)
     private String name;
 
+    @TextIndexed
     private String description;
+
     private Double price;
+
+    @Indexed
+    @TextIndexed(weight = 2)
     private String[] tags;
+
     private Long instructorId;
     private String status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    /**
+     * Timestamp of the last applied event, older or replayed events are ignored
+     */
+    private Long lastEventTimestamp;
+
+    /**
+     * Version of the course in the command service, orders events of one course
+     * independently of the producers' clocks. Absent for events published before it existed.
+     */
+    private Long version;
+
+    /**
+     * Lower-case word tokens of name, description and tags for prefix matching
+     */
+    @Indexed
+    private List<String> searchTokens;
+
+    /**
+     * Relevance of the document for a full-text search, not stored
+     */
+    @TextScore
+    private Float score;
 }
\ No newline at end of file
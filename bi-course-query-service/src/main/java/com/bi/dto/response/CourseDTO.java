@@ -22,5 +22,6 @@ public class CourseDTO {
     private String status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 }
 
@@ -17,5 +17,6 @@ public class CourseEvent {
     private Long instructorId;
     private String status;
     private Long timestamp;
+    private Long version;
 }
 
@@ -0,0 +1,14 @@
+package com.bi.events;
+
+/**
+ * Kafka headers carried by every record on the course-events topic, so consumers can
+ * route, filter and dedupe without decoding the payload
+ */
+public final class CourseEventHeaders {
+    public static final String CONTENT_TYPE = "content-type";
+    public static final String EVENT_TYPE = "event-type";
+    public static final String OUTBOX_ID = "outbox-id";
+
+    private CourseEventHeaders() {
+    }
+}
@@ -0,0 +1,113 @@
+package com.bi.events.codec;
+
+import com.bi.avro.AvroBinary;
+import com.bi.events.CourseEvent;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Avro binary encoding of {@link CourseEvent}: one byte with the schema version the
+ * event was written with, followed by the Avro record without field names. Events of
+ * the current version are written and read field by field; events of older versions
+ * are read through Avro schema resolution into the current schema, so a new version
+ * needs a new .avsc file, an entry in {@link #SCHEMAS} and the new field in
+ * {@link #write} and {@link #read}.
+ */
+@Component
+public class AvroCourseEventCodec implements CourseEventCodec {
+    public static final String CONTENT_TYPE = "application/vnd.bi.course-event+avro";
+
+    private static final byte CURRENT_VERSION = 2;
+    private static final Map<Byte, Schema> SCHEMAS = Map.of(
+            (byte) 1, AvroBinary.loadSchema("/avro/course-event-v1.avsc"),
+            (byte) 2, AvroBinary.loadSchema("/avro/course-event-v2.avsc"));
+    private static final Schema SCHEMA = SCHEMAS.get(CURRENT_VERSION);
+
+    private final Map<Byte, GenericDatumReader<GenericRecord>> olderReaders = Map.of(
+            (byte) 1, new GenericDatumReader<>(SCHEMAS.get((byte) 1), SCHEMA));
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(CourseEvent event) {
+        try {
+            return AvroBinary.encode(CURRENT_VERSION, event, AvroCourseEventCodec::write);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode course event", e);
+        }
+    }
+
+    @Override
+    public CourseEvent decode(byte[] payload) {
+        if (payload.length == 0 || !SCHEMAS.containsKey(payload[0])) {
+            throw new IllegalArgumentException("Unknown course event schema version: "
+                    + (payload.length == 0 ? "empty payload" : payload[0]));
+        }
+        try {
+            if (payload[0] == CURRENT_VERSION) {
+                return AvroBinary.decode(payload, AvroCourseEventCodec::read);
+            }
+            return fromRecord(olderReaders.get(payload[0]).read(null, AvroBinary.decoder(payload)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode course event", e);
+        }
+    }
+
+    private static void write(BinaryEncoder encoder, CourseEvent event) throws IOException {
+        AvroBinary.writeString(encoder, event.getEventType());
+        encoder.writeLong(event.getCourseId());
+        AvroBinary.writeOptionalString(encoder, event.getCourseName());
+        AvroBinary.writeOptionalString(encoder, event.getDescription());
+        AvroBinary.writeOptionalDouble(encoder, event.getPrice());
+        AvroBinary.writeOptionalStrings(encoder, event.getTags());
+        AvroBinary.writeOptionalLong(encoder, event.getInstructorId());
+        AvroBinary.writeOptionalString(encoder, event.getStatus());
+        encoder.writeLong(event.getTimestamp());
+        AvroBinary.writeOptionalLong(encoder, event.getVersion());
+    }
+
+    private static CourseEvent read(BinaryDecoder decoder) throws IOException {
+        return new CourseEvent(
+                decoder.readString(),
+                decoder.readLong(),
+                AvroBinary.readOptionalString(decoder),
+                AvroBinary.readOptionalString(decoder),
+                AvroBinary.readOptionalDouble(decoder),
+                AvroBinary.readOptionalStrings(decoder),
+                AvroBinary.readOptionalLong(decoder),
+                AvroBinary.readOptionalString(decoder),
+                decoder.readLong(),
+                AvroBinary.readOptionalLong(decoder));
+    }
+
+    private static CourseEvent fromRecord(GenericRecord record) {
+        List<?> tags = (List<?>) record.get("tags");
+        return new CourseEvent(
+                string(record.get("eventType")),
+                (Long) record.get("courseId"),
+                string(record.get("courseName")),
+                string(record.get("description")),
+                (Double) record.get("price"),
+                tags == null ? null : tags.stream().map(String::valueOf).toArray(String[]::new),
+                (Long) record.get("instructorId"),
+                string(record.get("status")),
+                (Long) record.get("timestamp"),
+                (Long) record.get("version"));
+    }
+
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package com.bi.events.codec;
+
+import com.bi.events.CourseEvent;
+
+/**
+ * Wire format of {@link CourseEvent}. The content type travels with every encoded
+ * event (outbox column, Kafka header) so readers can pick the matching codec.
+ */
+public interface CourseEventCodec {
+
+    String contentType();
+
+    byte[] encode(CourseEvent event);
+
+    CourseEvent decode(byte[] payload);
+}
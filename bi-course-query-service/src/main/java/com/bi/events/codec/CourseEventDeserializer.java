@@ -0,0 +1,34 @@
+package com.bi.events.codec;
+
+import com.bi.events.CourseEvent;
+import com.bi.events.CourseEventHeaders;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes course events with the codec named by the record's content-type header.
+ * Records without the header were published before it existed and are JSON.
+ */
+@RequiredArgsConstructor
+public class CourseEventDeserializer implements Deserializer<CourseEvent> {
+    private final CourseEventCodecs codecs;
+
+    @Override
+    public CourseEvent deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public CourseEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header contentType = headers == null ? null : headers.lastHeader(CourseEventHeaders.CONTENT_TYPE);
+        return codecs.forContentType(contentType == null ? null : new String(contentType.value(), StandardCharsets.UTF_8))
+                .decode(data);
+    }
+}
@@ -0,0 +1,35 @@
+package com.bi.events.codec;
+
+import com.bi.events.CourseEvent;
+import com.bi.events.CourseEventHeaders;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Counterpart of {@link CourseEventDeserializer}: encodes a course event with the codec
+ * named by the record's content-type header, so a dead-lettered event keeps the format
+ * it arrived in
+ */
+@RequiredArgsConstructor
+public class CourseEventSerializer implements Serializer<CourseEvent> {
+    private final CourseEventCodecs codecs;
+
+    @Override
+    public byte[] serialize(String topic, CourseEvent data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, CourseEvent data) {
+        if (data == null) {
+            return null;
+        }
+        Header contentType = headers == null ? null : headers.lastHeader(CourseEventHeaders.CONTENT_TYPE);
+        return codecs.forContentType(contentType == null ? null : new String(contentType.value(), StandardCharsets.UTF_8))
+                .encode(data);
+    }
+}
@@ -0,0 +1,99 @@
+package com.bi.repository;
+
+import com.bi.document.CourseDocument;
+import com.bi.search.CourseExportFilter;
+import com.bi.search.CourseSearchCriteria;
+import com.mongodb.ExplainVerbosity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Explains the filters the repository sends to Mongo and reports the plan stages the
+ * query planner picks, so a query that falls back to a collection scan is noticed
+ * before it reaches production data volumes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseQueryPlanInspector {
+    private final MongoTemplate mongoTemplate;
+
+    private static final String ARCHIVED = "ARCHIVED";
+    private static final String COLLSCAN = "COLLSCAN";
+
+    public record QueryPlan(String query, String filter, List<String> stages, boolean collectionScan) {
+    }
+
+    public List<QueryPlan> inspect() {
+        List<QueryPlan> plans = new ArrayList<>();
+        probes().forEach((name, query) -> plans.add(explain(name, query)));
+        return plans;
+    }
+
+    /**
+     * Representative filters for every repository query, the values only need to have the right type
+     */
+    private Map<String, Query> probes() {
+        Map<String, Query> probes = new LinkedHashMap<>();
+        probes.put("findByCourseId", Query.query(Criteria.where("courseId").is(0L)));
+        probes.put("findProjectionStateByCourseIdIn", Query.query(Criteria.where("courseId").in(List.of(0L, 1L))));
+        probes.put("findByStatusNot", Query.query(Criteria.where("status").ne(ARCHIVED)));
+        probes.put("search(keyword)", CourseQueryRepositoryImpl.searchQuery(
+                new CourseSearchCriteria("java", null, null, null, false)));
+        probes.put("search(prefix)", CourseQueryRepositoryImpl.searchQuery(
+                new CourseSearchCriteria("spring bo", null, null, null, true)));
+        probes.put("search(price)", CourseQueryRepositoryImpl.searchQuery(
+                new CourseSearchCriteria(null, 10.0, 100.0, null, false)));
+        probes.put("search(tags)", CourseQueryRepositoryImpl.searchQuery(
+                new CourseSearchCriteria(null, null, null, List.of("java"), false)));
+        probes.put("scroll", CourseQueryRepositoryImpl.scrollQuery(null, false, 0L));
+        probes.put("scroll(includeArchived)", CourseQueryRepositoryImpl.scrollQuery(null, true, 0L));
+        probes.put("scroll(search)", CourseQueryRepositoryImpl.scrollQuery(
+                new CourseSearchCriteria(null, 10.0, 100.0, null, false), false, 0L));
+        probes.put("export(status, price)", CourseQueryRepositoryImpl.exportQuery(
+                new CourseExportFilter("PUBLISHED", 10.0, 100.0, null)));
+        probes.put("export(updatedSince)", CourseQueryRepositoryImpl.exportQuery(
+                new CourseExportFilter(null, null, null, LocalDateTime.of(2000, 1, 1, 0, 0))));
+        return probes;
+    }
+
+    private QueryPlan explain(String name, Query query) {
+        Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(CourseDocument.class))
+                .find(query.getQueryObject())
+                .sort(query.getSortObject())
+                .explain(ExplainVerbosity.QUERY_PLANNER);
+
+        List<String> stages = new ArrayList<>();
+        Object queryPlanner = explain.get("queryPlanner");
+        if (queryPlanner instanceof Document planner) {
+            collectStages(planner.get("winningPlan"), stages);
+        }
+        return new QueryPlan(name, query.getQueryObject().toJson(), stages, stages.contains(COLLSCAN));
+    }
+
+    /**
+     * Walks the plan tree, which nests stages under inputStage, inputStages
+     * or queryPlan depending on the server version and execution engine
+     */
+    private void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
@@ -7,39 +7,19 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface CourseQueryRepository extends MongoRepository<CourseDocument, String> {
+public interface CourseQueryRepository extends MongoRepository<CourseDocument, String>, CourseQueryRepositoryCustom {
     
     CourseDocument findByCourseId(Long courseId);
     
-    Page<CourseDocument> findByStatusNot(String status, Pageable pageable);
-    
-    @Query("{ $and: [ " +
-           "{ $or: [ " +
-           "{ 'name': { $regex: ?0, $options: 'i' } }, " +
-           "{ 'description': { $regex: ?0, $options: 'i' } }, " +
-           "{ 'tags': { $in: [?0] } } " +
-           "] }, " +
-           "{ 'status': { $ne: 'ARCHIVED' } } " +
-           "] }")
-    Page<CourseDocument> searchCourses(String keyword, Pageable pageable);
+    /**
+     * Load only what the projection needs to detect stale events and listing changes
+     */
+    @Query(value = "{ 'courseId': { $in: ?0 } }", fields = "{ 'courseId': 1, 'status': 1, 'lastEventTimestamp': 1, 'version': 1 }")
+    List<CourseDocument> findProjectionStateByCourseIdIn(Collection<Long> courseIds);
     
-    @Query("{ $or: [ " +
-           "{ 'name': { $regex: ?0, $options: 'i' } }, " +
-           "{ 'description': { $regex: ?0, $options: 'i' } }, " +
-           "{ 'tags': { $in: [?0] } } " +
-           "] }")
-    Page<CourseDocument> searchAllCourses(String keyword, Pageable pageable);
-    
-    Page<CourseDocument> findByPriceBetween(Double minPrice, Double maxPrice, Pageable pageable);
-    
-    @Query("{ $and: [ " +
-           "{ $or: [ " +
-           "{ 'name': { $regex: ?0, $options: 'i' } }, " +
-           "{ 'description': { $regex: ?0, $options: 'i' } }, " +
-           "{ 'tags': { $in: [?0] } } " +
-           "] }, " +
-           "{ 'price': { $gte: ?1, $lte: ?2 } } " +
-           "] }")
-    Page<CourseDocument> searchCoursesWithPriceRange(String keyword, Double minPrice, Double maxPrice, Pageable pageable);
+    Page<CourseDocument> findByStatusNot(String status, Pageable pageable);
 }
\ No newline at end of file
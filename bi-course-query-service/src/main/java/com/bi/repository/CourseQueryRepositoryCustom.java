@@ -0,0 +1,47 @@
+package com.bi.repository;
+
+import com.bi.document.CourseDocument;
+import com.bi.search.CourseExportFilter;
+import com.bi.search.CourseSearchCriteria;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface CourseQueryRepositoryCustom {
+
+    /**
+     * Insert or replace the documents of the given courses with one unordered bulk write.
+     * A document is skipped when an event at least as recent as its
+     * {@code lastEventTimestamp} was already applied.
+     *
+     * @return number of documents written
+     */
+    int bulkUpsertIfNewer(Collection<CourseDocument> documents);
+
+    /**
+     * Search non-archived courses through the text index (ranked by relevance) or,
+     * in prefix mode, through the search token index. Never scans the collection.
+     */
+    Page<CourseDocument> search(CourseSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Keyset page ordered by courseId: up to {@code limit} courses with a courseId greater
+     * than {@code afterCourseId}, matching the search criteria or, when they are null,
+     * the course listing. Cost does not grow with the depth of the page.
+     */
+    List<CourseDocument> scroll(CourseSearchCriteria criteria, boolean includeArchived, Long afterCourseId, int limit);
+
+    /**
+     * Number of courses {@link #scroll} walks through in total
+     */
+    long countMatching(CourseSearchCriteria criteria, boolean includeArchived);
+
+    /**
+     * Stream every course matching the filter from a server-side cursor, ordered by
+     * updatedAt for incremental pulls and by courseId otherwise. The caller must close the stream.
+     */
+    Stream<CourseDocument> streamForExport(CourseExportFilter filter);
+}
@@ -0,0 +1,211 @@
+package com.bi.repository;
+
+import com.bi.document.CourseDocument;
+import com.bi.search.CourseExportFilter;
+import com.bi.search.CourseSearchCriteria;
+import com.bi.search.SearchTokenizer;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class CourseQueryRepositoryImpl implements CourseQueryRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final String ARCHIVED = "ARCHIVED";
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
+    @Override
+    public int bulkUpsertIfNewer(Collection<CourseDocument> documents) {
+        if (documents.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, CourseDocument.class);
+        documents.forEach(document -> bulk.upsert(newerThanStored(document), replaceWith(document)));
+
+        try {
+            return written(bulk.execute());
+        } catch (BulkOperationException e) {
+            // Stale events show up as duplicate key errors, anything else is a real failure
+            boolean onlyStale = e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (!onlyStale) {
+                throw e;
+            }
+            return written(e.getResult());
+        }
+    }
+
+    @Override
+    public Page<CourseDocument> search(CourseSearchCriteria criteria, Pageable pageable) {
+        Query query = searchQuery(criteria);
+        List<CourseDocument> content = mongoTemplate.find(Query.of(query).with(pageable), CourseDocument.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query), CourseDocument.class));
+    }
+
+    @Override
+    public List<CourseDocument> scroll(CourseSearchCriteria criteria, boolean includeArchived, Long afterCourseId, int limit) {
+        return mongoTemplate.find(scrollQuery(criteria, includeArchived, afterCourseId).limit(limit), CourseDocument.class);
+    }
+
+    @Override
+    public long countMatching(CourseSearchCriteria criteria, boolean includeArchived) {
+        return mongoTemplate.count(scrollFilter(criteria, includeArchived), CourseDocument.class);
+    }
+
+    @Override
+    public Stream<CourseDocument> streamForExport(CourseExportFilter filter) {
+        return mongoTemplate.stream(exportQuery(filter).cursorBatchSize(EXPORT_BATCH_SIZE), CourseDocument.class);
+    }
+
+    /**
+     * Query used by {@link #streamForExport}, shared with the query plan inspector
+     */
+    static Query exportQuery(CourseExportFilter filter) {
+        Query query = new Query();
+        if (filter.status() != null) {
+            query.addCriteria(Criteria.where("status").is(filter.status()));
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            Criteria price = Criteria.where("price");
+            if (filter.minPrice() != null) {
+                price = price.gte(filter.minPrice());
+            }
+            if (filter.maxPrice() != null) {
+                price = price.lte(filter.maxPrice());
+            }
+            query.addCriteria(price);
+        }
+        if (filter.updatedSince() != null) {
+            query.addCriteria(Criteria.where("updatedAt").gte(filter.updatedSince()));
+            query.with(Sort.by("updatedAt", "courseId"));
+        } else {
+            query.with(Sort.by("courseId"));
+        }
+        query.fields().exclude("searchTokens");
+        return query;
+    }
+
+    /**
+     * Query used by {@link #scroll}, shared with the query plan inspector
+     */
+    static Query scrollQuery(CourseSearchCriteria criteria, boolean includeArchived, Long afterCourseId) {
+        Query query = scrollFilter(criteria, includeArchived);
+        if (afterCourseId != null) {
+            query.addCriteria(Criteria.where("courseId").gt(afterCourseId));
+        }
+        return query.with(Sort.by("courseId"));
+    }
+
+    private static Query scrollFilter(CourseSearchCriteria criteria, boolean includeArchived) {
+        if (criteria != null) {
+            // Keyset pages follow courseId, relevance order only applies to offset pages
+            return searchQuery(criteria, false);
+        }
+        return includeArchived ? new Query() : Query.query(Criteria.where("status").ne(ARCHIVED));
+    }
+
+    /**
+     * Filter used by {@link #search}, shared with the query plan inspector
+     */
+    static Query searchQuery(CourseSearchCriteria criteria) {
+        return searchQuery(criteria, true);
+    }
+
+    private static Query searchQuery(CourseSearchCriteria criteria, boolean rankByScore) {
+        List<String> tokens = SearchTokenizer.tokenizeKeyword(criteria.keyword(), criteria.prefix());
+        Query query;
+        if (tokens.isEmpty() && StringUtils.hasText(criteria.keyword())) {
+            // A keyword made only of words too short to index matches nothing,
+            // it must not fall through to an unfiltered catalog query
+            query = Query.query(Criteria.where("courseId").in(List.of()));
+        } else if (tokens.isEmpty()) {
+            query = new Query();
+        } else if (criteria.prefix()) {
+            // Complete words must match exactly, the word being typed as a prefix.
+            // Tokens are letters and digits only, so the anchored regex needs no escaping
+            // and is answered from the searchTokens index bounds.
+            List<Criteria> matches = new ArrayList<>();
+            tokens.subList(0, tokens.size() - 1)
+                    .forEach(token -> matches.add(Criteria.where("searchTokens").is(token)));
+            matches.add(Criteria.where("searchTokens").regex("^" + tokens.get(tokens.size() - 1)));
+            query = Query.query(new Criteria().andOperator(matches));
+        } else {
+            TextQuery textQuery = TextQuery.queryText(TextCriteria.forDefaultLanguage()
+                    .matchingAny(tokens.toArray(String[]::new)));
+            query = rankByScore ? textQuery.sortByScore() : textQuery;
+        }
+
+        query.addCriteria(Criteria.where("status").ne(ARCHIVED));
+        if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+            Criteria price = Criteria.where("price");
+            if (criteria.minPrice() != null) {
+                price = price.gte(criteria.minPrice());
+            }
+            if (criteria.maxPrice() != null) {
+                price = price.lte(criteria.maxPrice());
+            }
+            query.addCriteria(price);
+        }
+        if (criteria.tags() != null && !criteria.tags().isEmpty()) {
+            query.addCriteria(Criteria.where("tags").all(criteria.tags()));
+        }
+        return query;
+    }
+
+    /**
+     * Matches only if the stored document is older, by course version when the event
+     * carries one and by event timestamp otherwise. When it is newer, the upsert
+     * attempts an insert that the unique courseId index rejects.
+     */
+    private static Query newerThanStored(CourseDocument document) {
+        if (document.getVersion() != null) {
+            return Query.query(Criteria.where("courseId").is(document.getCourseId())
+                    .orOperator(
+                            Criteria.where("version").lt(document.getVersion()),
+                            Criteria.where("version").exists(false)));
+        }
+        return Query.query(Criteria.where("courseId").is(document.getCourseId())
+                .orOperator(
+                        Criteria.where("lastEventTimestamp").lt(document.getLastEventTimestamp()),
+                        Criteria.where("lastEventTimestamp").exists(false)));
+    }
+
+    private static Update replaceWith(CourseDocument document) {
+        return new Update()
+                .set("name", document.getName())
+                .set("description", document.getDescription())
+                .set("price", document.getPrice())
+                .set("tags", document.getTags())
+                .set("instructorId", document.getInstructorId())
+                .set("status", document.getStatus())
+                .set("updatedAt", document.getUpdatedAt())
+                .set("lastEventTimestamp", document.getLastEventTimestamp())
+                .set("version", document.getVersion())
+                .set("searchTokens", document.getSearchTokens())
+                .setOnInsert("createdAt", document.getCreatedAt());
+    }
+
+    private static int written(BulkWriteResult result) {
+        return result.getMatchedCount() + result.getUpserts().size();
+    }
+}
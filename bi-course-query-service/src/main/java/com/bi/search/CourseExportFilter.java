@@ -0,0 +1,12 @@
+package com.bi.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * @param status       only courses in this status, all statuses when null
+ * @param minPrice     lower price bound, inclusive
+ * @param maxPrice     upper price bound, inclusive
+ * @param updatedSince only courses updated at or after this time, for incremental pulls
+ */
+public record CourseExportFilter(String status, Double minPrice, Double maxPrice, LocalDateTime updatedSince) {
+}
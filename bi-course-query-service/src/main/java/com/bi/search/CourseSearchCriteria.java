@@ -0,0 +1,15 @@
+package com.bi.search;
+
+import java.util.List;
+
+/**
+ * @param keyword  free text, matched against name, description and tags
+ * @param minPrice lower price bound, inclusive
+ * @param maxPrice upper price bound, inclusive
+ * @param tags     courses must carry all of these tags
+ * @param prefix   treat the last keyword token as a prefix (type-ahead) instead of
+ *                 running a ranked full-text search
+ */
+public record CourseSearchCriteria(String keyword, Double minPrice, Double maxPrice,
+                                   List<String> tags, boolean prefix) {
+}
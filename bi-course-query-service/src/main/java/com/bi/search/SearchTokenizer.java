@@ -0,0 +1,53 @@
+package com.bi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits course text into lower-case word tokens. The same rules are applied when a
+ * document is projected and when a keyword is searched, and since tokens only contain
+ * letters and digits they are safe to use inside a query without escaping.
+ */
+public final class SearchTokenizer {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        Arrays.stream(texts)
+                .filter(Objects::nonNull)
+                .flatMap(text -> SEPARATORS.splitAsStream(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> token.length() >= MIN_TOKEN_LENGTH)
+                .forEach(tokens::add);
+        return List.copyOf(tokens);
+    }
+
+    /**
+     * Tokens of a search keyword. In prefix mode the word being typed is kept as the
+     * last token however short it is, so a single letter still narrows the results.
+     */
+    public static List<String> tokenizeKeyword(String keyword, boolean prefix) {
+        List<String> tokens = tokenize(keyword);
+        if (!prefix || keyword == null) {
+            return tokens;
+        }
+        String[] words = SEPARATORS.split(keyword.toLowerCase(Locale.ROOT));
+        String last = words.length == 0 ? "" : words[words.length - 1];
+        if (last.isEmpty() || last.length() >= MIN_TOKEN_LENGTH) {
+            return tokens;
+        }
+        List<String> withLast = new ArrayList<>(tokens);
+        withLast.remove(last);
+        withLast.add(last);
+        return List.copyOf(withLast);
+    }
+}
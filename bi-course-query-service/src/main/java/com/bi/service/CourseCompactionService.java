@@ -0,0 +1,81 @@
+package com.bi.service;
+
+import com.bi.document.CourseDocument;
+import com.bi.search.SearchTokenizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One-off maintenance for course documents written by older versions of the projection:
+ * collapses duplicates from before upserts were keyed by courseId (the most recently
+ * updated document is kept) and fills in search tokens for documents projected before
+ * they existed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseCompactionService {
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public long compactDuplicates() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "updatedAt")),
+                Aggregation.group("courseId").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        long removed = 0;
+        for (Document duplicates : mongoTemplate.aggregate(aggregation, CourseDocument.class, Document.class)) {
+            List<Object> ids = duplicates.getList("ids", Object.class);
+            List<Object> stale = ids.subList(1, ids.size());
+            removed += mongoTemplate.remove(Query.query(Criteria.where("_id").in(stale)), CourseDocument.class)
+                    .getDeletedCount();
+        }
+
+        log.info("Removed {} duplicate course documents", removed);
+        return removed;
+    }
+
+    public long backfillSearchTokens() {
+        Query missing = Query.query(Criteria.where("searchTokens").exists(false)).limit(BACKFILL_BATCH_SIZE);
+        missing.fields().include("name", "description", "tags");
+
+        long updated = 0;
+        List<CourseDocument> batch;
+        while (!(batch = mongoTemplate.find(missing, CourseDocument.class)).isEmpty()) {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CourseDocument.class);
+            for (CourseDocument document : batch) {
+                List<String> text = new ArrayList<>();
+                text.add(document.getName());
+                text.add(document.getDescription());
+                if (document.getTags() != null) {
+                    text.addAll(Arrays.asList(document.getTags()));
+                }
+                bulkOps.updateOne(Query.query(Criteria.where("_id").is(document.getId())),
+                        Update.update("searchTokens", SearchTokenizer.tokenize(text.toArray(String[]::new))));
+            }
+            updated += bulkOps.execute().getModifiedCount();
+        }
+
+        if (updated > 0) {
+            log.info("Backfilled search tokens for {} course documents", updated);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,36 @@
+package com.bi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor. It carries the courseId of the last course on a page, which is
+ * both the sort key and the tie-breaker since it is unique. The version prefix leaves
+ * room for other sort keys without breaking cursors that clients still hold.
+ */
+final class CourseCursor {
+    private static final String VERSION = "c1:";
+
+    private CourseCursor() {
+    }
+
+    static String encode(Long courseId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((VERSION + courseId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(VERSION)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.valueOf(value.substring(VERSION.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
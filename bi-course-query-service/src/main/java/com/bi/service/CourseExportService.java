@@ -0,0 +1,44 @@
+package com.bi.service;
+
+import com.bi.document.CourseDocument;
+import com.bi.repository.CourseQueryRepository;
+import com.bi.search.CourseExportFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the course catalog as NDJSON, one course per line, straight from a Mongo
+ * cursor so memory stays constant whatever the size of the export. Reads bypass
+ * the cache: an export touches every course once and would only evict hot entries.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseExportService {
+    private final CourseQueryRepository repository;
+    private final ObjectMapper objectMapper;
+
+    private static final byte NEWLINE = '\n';
+
+    public long export(CourseExportFilter filter, OutputStream out) throws IOException {
+        long exported = 0;
+        try (Stream<CourseDocument> courses = repository.streamForExport(filter)) {
+            Iterator<CourseDocument> iterator = courses.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(CourseQueryService.mapToDTO(iterator.next())));
+                out.write(NEWLINE);
+                exported++;
+            }
+        }
+        out.flush();
+        log.info("Exported {} courses with filter {}", exported, filter);
+        return exported;
+    }
+}
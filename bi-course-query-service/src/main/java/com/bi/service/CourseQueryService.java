@@ -1,51 +1,93 @@
 package com.bi.service;
 
+import com.bi.cache.CourseCacheInvalidator;
+import com.bi.cache.CourseCacheInvalidator.CourseChange;
+import com.bi.cache.CourseCacheKeys;
+import com.bi.cache.CourseCacheTags;
 import com.bi.document.CourseDocument;
 import com.bi.dto.response.CourseDTO;
+import com.bi.dto.response.CursorPageResponse;
 import com.bi.dto.response.PageResponse;
 import com.bi.events.CourseEvent;
+import com.bi.events.CourseEventHeaders;
 import com.bi.events.CourseEventType;
 import com.bi.repository.CourseQueryRepository;
+import com.bi.search.CourseSearchCriteria;
+import com.bi.search.SearchTokenizer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.cache.annotation.CacheEvict;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CourseQueryService {
     private final CourseQueryRepository repository;
+    private final CacheManager cacheManager;
+    private final CourseCacheKeys cacheKeys;
+    private final CourseCacheTags cacheTags;
+    private final CourseCacheInvalidator cacheInvalidator;
+    private final ProcessedEventFilter processedEvents;
+    private final ProjectionMetrics projectionMetrics;
 
-    @Cacheable(value = "courses", key = "#courseId")
+    private static final String ARCHIVED = "ARCHIVED";
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(CourseQueryService.class);
+
+    @Value("${course.query.scroll.max-size:1000}")
+    private int maxScrollSize;
+
+    @Cacheable(value = "courses", key = "#courseId", sync = true)
     public CourseDTO findById(Long courseId) {
         log.debug("Finding course by id: {}", courseId);
         CourseDocument doc = repository.findByCourseId(courseId);
         return mapToDTO(doc);
     }
 
-    @Cacheable(value = "coursePages", key = "'page_' + #pageable.pageNumber + '_' + #pageable.pageSize + '_' + #includeArchived")
+    /**
+     * Cached under a key that embeds the page generation. The key is built once, so the
+     * page is tagged with the key it is stored under even if the generation moves meanwhile.
+     */
     public PageResponse<CourseDTO> findAll(Pageable pageable, boolean includeArchived) {
-        log.debug("Finding all courses with pagination, includeArchived: {}", includeArchived);
-        Page<CourseDocument> page = includeArchived ? 
-            repository.findAll(pageable) :
-            repository.findByStatusNot("ARCHIVED", pageable);
-        List<CourseDTO> content = page.getContent().stream()
-                .map(this::mapToDTO)
-                .toList();
-        return new PageResponse(content, page.getNumber(), page.getSize(), page.getTotalElements());
+        String key = cacheKeys.page(pageable, includeArchived);
+        return cacheManager.getCache(CourseCacheKeys.PAGES).get(key, () -> {
+            log.debug("Finding all courses with pagination, includeArchived: {}", includeArchived);
+            Page<CourseDocument> page = includeArchived ?
+                repository.findAll(pageable) :
+                repository.findByStatusNot(ARCHIVED, pageable);
+            List<CourseDTO> content = page.getContent().stream()
+                    .map(CourseQueryService::mapToDTO)
+                    .toList();
+            PageResponse<CourseDTO> result = new PageResponse<>(content, page.getNumber(), page.getSize(), page.getTotalElements());
+            cacheTags.tag(CourseCacheKeys.PAGES, key, result);
+            return result;
+        });
     }
 
     // Default method excluding archived courses
@@ -53,43 +95,169 @@ public class CourseQueryService {
         return findAll(pageable, false);
     }
 
-    @Cacheable(value = "courseSearches", 
-               key = "'search_' + #keyword + '_' + #minPrice + '_' + #maxPrice + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public PageResponse<CourseDTO> searchCourses(String keyword, Double minPrice, Double maxPrice, Pageable pageable) {
-        log.debug("Searching courses with keyword: {}, price range: [{} - {}]", keyword, minPrice, maxPrice);
-        
-        Page<CourseDocument> page;
-        if (keyword != null && minPrice != null && maxPrice != null) {
-            page = repository.searchCoursesWithPriceRange(keyword, minPrice, maxPrice, pageable);
-        } else if (minPrice != null && maxPrice != null) {
-            page = repository.findByPriceBetween(minPrice, maxPrice, pageable);
-        } else if (keyword != null) {
-            page = repository.searchCourses(keyword, pageable);
-        } else {
-            page = repository.findAll(pageable);
-        }
+    /**
+     * Cached and tagged like {@link #findAll(Pageable, boolean)}, under a key that embeds
+     * the search generation
+     */
+    public PageResponse<CourseDTO> searchCourses(CourseSearchCriteria criteria, Pageable pageable) {
+        String key = cacheKeys.search(criteria, pageable);
+        return cacheManager.getCache(CourseCacheKeys.SEARCHES).get(key, () -> {
+            log.debug("Searching courses with criteria: {}", criteria);
+
+            Page<CourseDocument> page = repository.search(criteria, pageable);
+
+            List<CourseDTO> content = page.getContent().stream()
+                    .map(CourseQueryService::mapToDTO)
+                    .toList();
+            PageResponse<CourseDTO> result = new PageResponse<>(content, page.getNumber(), page.getSize(), page.getTotalElements());
+            cacheTags.tag(CourseCacheKeys.SEARCHES, key, result);
+            return result;
+        });
+    }
 
-        List<CourseDTO> content = page.getContent().stream()
-                .map(this::mapToDTO)
+    /**
+     * Keyset page of the listing, or of the search when criteria are given. Not cached:
+     * each page is an index range read and deep pages cost the same as the first.
+     */
+    public CursorPageResponse<CourseDTO> scroll(CourseSearchCriteria criteria, boolean includeArchived,
+                                                String after, int size, boolean includeTotal) {
+        int limit = Math.max(1, Math.min(size, maxScrollSize));
+        List<CourseDocument> documents = repository.scroll(criteria, includeArchived, CourseCursor.decode(after), limit + 1);
+        boolean hasMore = documents.size() > limit;
+        List<CourseDTO> content = documents.stream()
+                .limit(limit)
+                .map(CourseQueryService::mapToDTO)
                 .toList();
-        return new PageResponse(content, page.getNumber(), page.getSize(), page.getTotalElements());
+        String nextCursor = hasMore ? CourseCursor.encode(content.get(content.size() - 1).getId()) : null;
+        Long total = includeTotal ? repository.countMatching(criteria, includeArchived) : null;
+        return new CursorPageResponse<>(content, limit, nextCursor, total);
     }
 
+    /**
+     * Apply one poll of events: drop redelivered records by outbox id, keep only the latest
+     * event per course, drop events that are not newer than the stored projection, write
+     * the rest with a single bulk upsert and invalidate only the cache entries they affect.
+     * Offsets are committed after this returns. An undecodable record is handed to the
+     * error handler once the rest of the poll is applied.
+     */
     @KafkaListener(topics = "course-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleCourseEvent(CourseEvent event) {
-        log.info("Received course event: {}", event.getEventType());
+    public void handleCourseEvents(List<ConsumerRecord<String, CourseEvent>> records) {
+        log.info("Received {} course events", records.size());
+        long startedNanos = System.nanoTime();
         
-        CourseEventType eventType = CourseEventType.valueOf(event.getEventType());
-        switch (eventType) {
-            case COURSE_CREATED, COURSE_UPDATED -> upsertCourse(event);
-            // No more COURSE_DELETED events as we're using soft delete
-            default -> log.warn("Unhandled event type: {}", eventType);
+        Map<Long, CourseEvent> latestByCourse = new LinkedHashMap<>();
+        List<Long> outboxIds = new ArrayList<>();
+        int duplicates = 0;
+        int unhandled = 0;
+        ConsumerRecord<String, CourseEvent> undecodable = null;
+        for (ConsumerRecord<String, CourseEvent> record : records) {
+            if (record.value() == null) {
+                undecodable = undecodable == null ? record : undecodable;
+                unhandled++;
+                continue;
+            }
+            Long outboxId = outboxId(record);
+            if (processedEvents.isDuplicate(outboxId)) {
+                duplicates++;
+                continue;
+            }
+            if (outboxId != null) {
+                outboxIds.add(outboxId);
+            }
+            CourseEvent event = record.value();
+            CourseEventType eventType = CourseEventType.valueOf(event.getEventType());
+            switch (eventType) {
+                case COURSE_CREATED, COURSE_UPDATED -> latestByCourse.merge(event.getCourseId(), event,
+                        (current, candidate) -> isNewer(current, candidate.getVersion(), candidate.getTimestamp())
+                                ? current : candidate);
+                // No more COURSE_DELETED events as we're using soft delete
+                default -> {
+                    log.warn("Unhandled event type: {}", eventType);
+                    unhandled++;
+                }
+            }
+        }
+        if (duplicates > 0) {
+            log.debug("Skipped {} redelivered course events", duplicates);
+        }
+        if (latestByCourse.isEmpty()) {
+            processedEvents.markApplied(outboxIds);
+            projectionMetrics.recordBatch(startedNanos, records.size(), List.of(), 0, duplicates, unhandled);
+            rejectUndecodable(undecodable);
+            return;
+        }
+
+        Map<Long, CourseDocument> stored = repository.findProjectionStateByCourseIdIn(latestByCourse.keySet())
+                .stream()
+                .collect(Collectors.toMap(CourseDocument::getCourseId, Function.identity(), (first, second) -> first));
+
+        List<CourseEvent> applied = new ArrayList<>();
+        List<CourseDocument> updates = new ArrayList<>();
+        List<CourseChange> changes = new ArrayList<>();
+        for (CourseEvent event : latestByCourse.values()) {
+            CourseDocument current = stored.get(event.getCourseId());
+            if (current != null && current.getLastEventTimestamp() != null
+                    && !isNewer(event, current.getVersion(), current.getLastEventTimestamp())) {
+                continue;
+            }
+            applied.add(event);
+            updates.add(toDocument(event));
+            boolean membershipChanged = current == null
+                    || ARCHIVED.equals(current.getStatus()) != ARCHIVED.equals(event.getStatus());
+            changes.add(new CourseChange(event.getCourseId(), membershipChanged));
+        }
+
+        int written = repository.bulkUpsertIfNewer(updates);
+        cacheInvalidator.invalidate(changes);
+        processedEvents.markApplied(outboxIds);
+        projectionMetrics.recordBatch(startedNanos, records.size(), applied,
+                records.size() - duplicates - unhandled - applied.size(), duplicates, unhandled);
+        log.debug("Applied {} of {} course events ({} courses)", written, records.size(), latestByCourse.size());
+        rejectUndecodable(undecodable);
+    }
+
+    /**
+     * Fail the batch at the first undecodable record: the error handler commits the records
+     * before it, dead-letters it and redelivers the rest, which were applied already and
+     * are dropped as duplicates
+     */
+    private static void rejectUndecodable(ConsumerRecord<String, CourseEvent> record) {
+        if (record == null) {
+            return;
+        }
+        DeserializationException cause = SerializationUtils.getExceptionFromHeader(
+                record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        throw new BatchListenerFailedException("Undecodable course event", cause, record);
+    }
+
+    /**
+     * Course versions decide when both sides have one, event timestamps otherwise
+     */
+    private static boolean isNewer(CourseEvent event, Long version, Long timestamp) {
+        if (event.getVersion() != null && version != null) {
+            return event.getVersion() > version;
+        }
+        return event.getTimestamp() > timestamp;
+    }
+
+    private static Long outboxId(ConsumerRecord<String, CourseEvent> record) {
+        Header header = record.headers().lastHeader(CourseEventHeaders.OUTBOX_ID);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
-    @CacheEvict(value = {"courses", "coursePages", "courseSearches"}, allEntries = true)
-    protected void upsertCourse(CourseEvent event) {
-        CourseDocument doc = CourseDocument.builder()
+    private CourseDocument toDocument(CourseEvent event) {
+        LocalDateTime eventTime = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(event.getTimestamp()),
+                TimeZone.getDefault().toZoneId()
+        );
+        return CourseDocument.builder()
                 .courseId(event.getCourseId())
                 .name(event.getCourseName())
                 .description(event.getDescription())
@@ -97,24 +265,33 @@ public class CourseQueryService {
                 .tags(event.getTags())
                 .instructorId(event.getInstructorId())
                 .status(event.getStatus())
-                .updatedAt(LocalDateTime.ofInstant(
-                    Instant.ofEpochMilli(event.getTimestamp()),
-                    TimeZone.getDefault().toZoneId()
-                ))
+                .createdAt(eventTime)
+                .updatedAt(eventTime)
+                .lastEventTimestamp(event.getTimestamp())
+                .version(event.getVersion())
+                .searchTokens(SearchTokenizer.tokenize(searchText(event)))
                 .build();
-
-        repository.save(doc);
     }
 
-    @CacheEvict(value = {"courses", "coursePages", "courseSearches"}, allEntries = true)
     protected void deleteCourse(Long courseId) {
         CourseDocument doc = repository.findByCourseId(courseId);
         if (doc != null) {
             repository.delete(doc);
+            cacheInvalidator.invalidate(List.of(new CourseChange(courseId, true)));
+        }
+    }
+
+    private static String[] searchText(CourseEvent event) {
+        List<String> text = new ArrayList<>();
+        text.add(event.getCourseName());
+        text.add(event.getDescription());
+        if (event.getTags() != null) {
+            text.addAll(Arrays.asList(event.getTags()));
         }
+        return text.toArray(String[]::new);
     }
 
-    private CourseDTO mapToDTO(CourseDocument doc) {
+    static CourseDTO mapToDTO(CourseDocument doc) {
         if (doc == null) return null;	
         return CourseDTO.builder()
                 .id(doc.getCourseId())
@@ -126,6 +303,7 @@ public class CourseQueryService {
                 .status(doc.getStatus())
                 .createdAt(doc.getCreatedAt())
                 .updatedAt(doc.getUpdatedAt())
+                .version(doc.getVersion())
                 .build();
     }
 }
\ No newline at end of file
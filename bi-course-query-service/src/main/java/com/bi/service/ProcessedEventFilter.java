@@ -0,0 +1,42 @@
+package com.bi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Remembers the outbox ids of recently applied course events, so a redelivered record
+ * (producer retry after a lost ack, consumer rebalance before the offset commit) is
+ * dropped with one in-memory lookup. Older duplicates still reach the projection and
+ * are rejected there by the per-course event timestamp.
+ */
+@Component
+public class ProcessedEventFilter {
+    private final Cache<Long, Boolean> appliedOutboxIds;
+
+    public ProcessedEventFilter(@Value("${course.events.dedupe.maximum-size:100000}") long maximumSize,
+                                @Value("${course.events.dedupe.expire-after-ms:600000}") long expireAfterMs) {
+        this.appliedOutboxIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterMs))
+                .build();
+    }
+
+    /**
+     * @param outboxId null for records published without the outbox-id header
+     */
+    public boolean isDuplicate(Long outboxId) {
+        return outboxId != null && appliedOutboxIds.getIfPresent(outboxId) != null;
+    }
+
+    /**
+     * Call only once the events are durably applied, so a failed batch is replayed in full
+     */
+    public void markApplied(Collection<Long> outboxIds) {
+        outboxIds.forEach(outboxId -> appliedOutboxIds.put(outboxId, Boolean.TRUE));
+    }
+}
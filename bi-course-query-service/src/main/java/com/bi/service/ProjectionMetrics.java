@@ -0,0 +1,73 @@
+package com.bi.service;
+
+import com.bi.events.CourseEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Course event projection meters. Propagation lag is measured from the event timestamp,
+ * taken by the command service when the change was written, to the moment the projection
+ * write returns, so it covers the outbox relay, Kafka and the consumer; it includes any
+ * clock offset between the two hosts.
+ */
+@Component
+public class ProjectionMetrics {
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Timer propagationLag;
+    private final Counter applied;
+    private final Counter stale;
+    private final Counter duplicate;
+    private final Counter unhandled;
+
+    public ProjectionMetrics(MeterRegistry meterRegistry) {
+        this.batchTimer = Timer.builder("course.events.apply")
+                .description("Time to apply one poll of course events, including the bulk upsert and cache invalidation")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("course.events.batch.size")
+                .description("Course events per poll")
+                .register(meterRegistry);
+        this.propagationLag = Timer.builder("course.events.lag")
+                .description("Time from the course change in the command service to its projection")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(meterRegistry);
+        this.applied = eventCounter(meterRegistry, "applied");
+        this.stale = eventCounter(meterRegistry, "stale");
+        this.duplicate = eventCounter(meterRegistry, "duplicate");
+        this.unhandled = eventCounter(meterRegistry, "unhandled");
+    }
+
+    /**
+     * @param startedNanos {@link System#nanoTime()} when the poll was handed to the listener
+     * @param appliedEvents events written to the projection
+     * @param superseded events dropped because a newer one for the course was in the poll or stored
+     */
+    void recordBatch(long startedNanos, int records, Collection<CourseEvent> appliedEvents,
+                     int superseded, int duplicates, int unhandledEvents) {
+        batchTimer.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        batchSize.record(records);
+        long now = System.currentTimeMillis();
+        appliedEvents.forEach(event -> propagationLag.record(Math.max(0, now - event.getTimestamp()), TimeUnit.MILLISECONDS));
+        applied.increment(appliedEvents.size());
+        stale.increment(superseded);
+        duplicate.increment(duplicates);
+        unhandled.increment(unhandledEvents);
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("course.events")
+                .description("Consumed course events by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,125 @@
+package com.bi.cache;
+
+import com.bi.cache.CacheInvalidationBus.Invalidation;
+import com.bi.cache.CacheInvalidationBus.Type;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TwoTierCacheTest {
+    private static final String NAME = "courses";
+    private static final String KEY = "42";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private Cache<String, CacheEnvelope<?>> local;
+    private ConcurrentMapCache remote;
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        local = Caffeine.newBuilder().build();
+        remote = new ConcurrentMapCache(NAME);
+        CacheLoadPolicy loadPolicy = new CacheLoadPolicy(null, 0, null, null, Runnable::run, meterRegistry);
+        cache = new TwoTierCache(NAME, local, remote, mock(CacheInvalidationBus.class), loadPolicy);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loadOvertakenByEvictIsNotStored() throws Exception {
+        assertOvertakenLoadIsNotStored(cache -> cache.evict(KEY));
+    }
+
+    @Test
+    void loadOvertakenByClearIsNotStored() throws Exception {
+        assertOvertakenLoadIsNotStored(TwoTierCache::clear);
+    }
+
+    @Test
+    void loadOvertakenByAnotherPodsEvictIsNotStored() throws Exception {
+        assertOvertakenLoadIsNotStored(cache -> cache.invalidateLocal(new Invalidation(Type.EVICT, NAME, KEY)));
+    }
+
+    @Test
+    void loadNotOvertakenIsStoredInBothTiers() {
+        assertThat(cache.get(KEY, () -> "course")).isEqualTo("course");
+
+        assertThat(local.getIfPresent(KEY)).isNotNull();
+        assertThat(remote.get(KEY)).isNotNull();
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        int callers = 16;
+        AtomicInteger loads = new AtomicInteger();
+        CyclicBarrier start = new CyclicBarrier(callers);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get(KEY, () -> {
+                    loads.incrementAndGet();
+                    // Keep the load in flight until every other caller is waiting on it
+                    long deadline = System.currentTimeMillis() + 5000;
+                    while (coalesced() < callers - 1 && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(5);
+                    }
+                    return "course";
+                });
+            }));
+        }
+
+        for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("course");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(coalesced()).isEqualTo(callers - 1);
+    }
+
+    /**
+     * Runs {@code invalidation} while a load is in flight, then lets the load finish
+     */
+    private void assertOvertakenLoadIsNotStored(Consumer<TwoTierCache> invalidation) throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        Future<String> load = executor.submit(() -> cache.get(KEY, () -> {
+            loading.countDown();
+            invalidated.await();
+            return "stale course";
+        }));
+
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        invalidation.accept(cache);
+        invalidated.countDown();
+
+        assertThat(load.get(5, TimeUnit.SECONDS)).isEqualTo("stale course");
+        assertThat(local.getIfPresent(KEY)).isNull();
+        assertThat(remote.get(KEY)).isNull();
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("course.cache.loads").tag("outcome", "coalesced").counter().count();
+    }
+}